@@ -0,0 +1,476 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import edu.logic.graphs.SeamEngine;
+
+
+/**
+ * Admits generation jobs only while the sum of their estimated heap footprints stays within a budget, so that several
+ * jobs at once, e.g. requests of the {@link TileServer}, do not run the JVM out of memory. The other jobs wait, the
+ * highest priority first, jobs of the same priority in the order they arrived. Only the first waiting job may start, so
+ * a large job is not overtaken forever by smaller ones. A job larger than the whole budget runs alone.
+ * <p>
+ * The seam engines keep scratch memory per thread for later jobs. Jobs solving on a shared pool of threads declare it
+ * separately, the scheduler counts it once for the pool: the most any admitted job needed.
+ * <p>
+ * While jobs run, the heap in use is sampled, so that each {@link Ticket} reports the actual peak next to the estimate.
+ * The sampler stops, when no job runs, and with {@link #close}.
+ *
+ * @author agent
+ */
+public final class AdmissionScheduler implements AutoCloseable
+{
+   // Bytes per pixel of a tile in progress: sample and edge tile, the copies of their pixels, the cost field and its
+   // views, the result
+   private final static int TILE_BYTES_PER_PIXEL = 56;
+   // Bytes per pixel of a job: 4 cropped and 4 moved edge images
+   private final static int EDGE_BYTES_PER_PIXEL = 32;
+   // Bytes per pixel of each finished tile, kept until the job is done
+   private final static int RESULT_BYTES_PER_PIXEL = 4;
+   // Bytes per pixel of the input image: the decoded image and its copy as packed ints
+   private final static int INPUT_BYTES_PER_PIXEL = 8;
+
+   // Bytes of writing a png texture besides its map and lines: the deflater and the buffers of the compressed data
+   private final static int TEXTURE_WRITER_BYTES = 512 * 1024;
+
+   // Interval of the heap samples in milliseconds
+   private final static long SAMPLE_INTERVAL = 10;
+
+   private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+   // Heap the admitted jobs may take in bytes
+   private final long budget;
+   // Sum of the estimates of the admitted jobs
+   private long admittedFootprint;
+   // Scratch memory kept by the threads of the shared pool, per engine owning the scratch graphs
+   private final Map<SeamEngine, Long> scratchFootprints = new EnumMap<SeamEngine, Long>(SeamEngine.class);
+
+   private final List<Ticket> admittedTickets = new ArrayList<Ticket>();
+   private final PriorityQueue<Ticket> waitingTickets = new PriorityQueue<Ticket>();
+   // Keeps the arrival order within a priority
+   private long arrivals;
+
+   // Samples the heap while jobs run, started with the first job and ended, when none runs
+   private Thread sampler;
+
+
+   /**
+    * @param budget
+    *           Heap in bytes, the admitted jobs may take together.
+    */
+   public AdmissionScheduler(long budget)
+   {
+      if (budget < 1)
+      {
+         throw new IllegalArgumentException("Budget must be at least 1.");
+      }
+      this.budget = budget;
+   }
+
+
+   /**
+    * @return A scheduler, that leaves a quarter of the maximum heap to everything else.
+    */
+   public static AdmissionScheduler forMaxMemory()
+   {
+      return new AdmissionScheduler(Runtime.getRuntime().maxMemory() / 4 * 3);
+   }
+
+
+   /**
+    * Estimates the peak heap footprint of a job of {@link StrictWangTileGenerator}. The scratch memory the seam engine
+    * keeps per thread is not included, see {@link #estimateThreadScratch}.
+    *
+    * @param tilesInProgress
+    *           Number of tiles held at once, e.g. one per thread generating tiles.
+    * @param inputPixels
+    *           Pixels of the input image, if the job decodes it, otherwise 0.
+    * @return Bytes
+    */
+   public static long estimateFootprint(int numberOfTiles, int tileResolution, SeamEngine seamEngine, int tilesInProgress, long inputPixels)
+   {
+      long pixels = (long) tileResolution * tileResolution;
+      tilesInProgress = Math.max(1, Math.min(tilesInProgress, numberOfTiles));
+      long tileFootprint = (TILE_BYTES_PER_PIXEL + getTileBytesPerPixel(seamEngine)) * pixels;
+      return INPUT_BYTES_PER_PIXEL * inputPixels + EDGE_BYTES_PER_PIXEL * pixels + numberOfTiles * RESULT_BYTES_PER_PIXEL * pixels
+         + tilesInProgress * tileFootprint;
+   }
+
+
+   /**
+    * Estimates the heap footprint of writing a texture of the tiles of a job with {@link TextureWriter}, in addition to
+    * {@link #estimateFootprint}. The texture is streamed: besides the map, only a copy of the tiles and one line are held.
+    *
+    * @return Bytes
+    */
+   public static long estimateTextureFootprint(int numberOfTiles, int tileResolution, int columns, int rows)
+   {
+      long tilePixels = (long) numberOfTiles * tileResolution * tileResolution;
+      return TEXTURE_WRITER_BYTES + 2L * columns * rows + RESULT_BYTES_PER_PIXEL * tilePixels + 3L * columns * tileResolution;
+   }
+
+
+   /**
+    * Estimates the scratch memory, that the seam engine keeps in each thread, which solved a tile of the resolution. The
+    * threads keep it for later jobs, until they end.
+    *
+    * @param solverThreads
+    *           Number of threads solving seams.
+    * @return Bytes
+    */
+   public static long estimateThreadScratch(int tileResolution, SeamEngine seamEngine, int solverThreads)
+   {
+      return (long) solverThreads * getScratchBytesPerPixel(seamEngine) * tileResolution * tileResolution;
+   }
+
+
+   /**
+    * @return Memory of the engine per pixel of each tile in progress, besides its scratch memory.
+    */
+   private static int getTileBytesPerPixel(SeamEngine seamEngine)
+   {
+      switch (seamEngine)
+      {
+         case GRID:
+         case GRID_BUCKET:
+         case MONOTONE:
+         case MIN_CUT:
+            return 0;
+
+         case MULTIRESOLUTION:
+            // The cost fields and scaled tiles of the coarser levels
+            return 16;
+
+         case JGRAPHT:
+            // Objects per vertex and edge and the maps of Dijkstra, created for each seam, measured
+            return 1200;
+      }
+      throw new IllegalArgumentException("Unknown seam engine " + seamEngine + ".");
+   }
+
+
+   /**
+    * @return Scratch memory of the engine per pixel of a tile, kept per thread.
+    */
+   private static int getScratchBytesPerPixel(SeamEngine seamEngine)
+   {
+      switch (seamEngine)
+      {
+         case GRID:
+         case GRID_BUCKET:
+         case MONOTONE:
+         case MULTIRESOLUTION:
+            // 3 double and 7 int arrays, the coarser levels reuse them
+            return 52;
+
+         case MIN_CUT:
+            // 4 float capacities, 7 int and 3 byte arrays
+            return 47;
+
+         case JGRAPHT:
+            return 0;
+      }
+      throw new IllegalArgumentException("Unknown seam engine " + seamEngine + ".");
+   }
+
+
+   /**
+    * @return The engine, whose scratch graphs seamEngine uses. The grid engines share theirs.
+    */
+   private static SeamEngine getScratchOwner(SeamEngine seamEngine)
+   {
+      return seamEngine == SeamEngine.MIN_CUT || seamEngine == SeamEngine.JGRAPHT ? seamEngine : SeamEngine.GRID;
+   }
+
+
+   /**
+    * Blocks, until the job may start.
+    *
+    * @param estimatedFootprint
+    *           As returned by {@link #estimateFootprint}.
+    * @param priority
+    *           Waiting jobs with a higher priority start first.
+    * @return The ticket of the job, it must be closed when the job is done.
+    * @throws InterruptedException
+    *            If the thread has been interrupted while waiting, the job has not been admitted then.
+    */
+   public Ticket admit(long estimatedFootprint, int priority) throws InterruptedException
+   {
+      return admitScratch(estimatedFootprint, null, 0, priority);
+   }
+
+
+   /**
+    * Blocks, until a job solving its seams on the shared pool of threads may start.
+    *
+    * @param estimatedFootprint
+    *           As returned by {@link #estimateFootprint}.
+    * @param threadScratch
+    *           As returned by {@link #estimateThreadScratch} for the threads of the pool. Counted once for all jobs of
+    *           the seam engine, the threads keep it after the job.
+    * @param priority
+    *           Waiting jobs with a higher priority start first.
+    * @return The ticket of the job, it must be closed when the job is done.
+    * @throws InterruptedException
+    *            If the thread has been interrupted while waiting, the job has not been admitted then.
+    */
+   public Ticket admit(long estimatedFootprint, SeamEngine seamEngine, long threadScratch, int priority)
+      throws InterruptedException
+   {
+      return admitScratch(estimatedFootprint, getScratchOwner(seamEngine), threadScratch, priority);
+   }
+
+
+   /**
+    * @param scratchOwner
+    *           Engine owning the scratch graphs of the job, null if it keeps none in the shared pool.
+    */
+   private synchronized Ticket admitScratch(long estimatedFootprint, SeamEngine scratchOwner, long threadScratch,
+      int priority) throws InterruptedException
+   {
+      Ticket ticket = new Ticket(estimatedFootprint, priority, arrivals++);
+      waitingTickets.add(ticket);
+      try
+      {
+         while (waitingTickets.peek() != ticket || !fits(estimatedFootprint, scratchOwner, threadScratch))
+         {
+            wait();
+         }
+      }
+      finally
+      {
+         waitingTickets.remove(ticket);
+         // The next waiting job may fit as well
+         notifyAll();
+      }
+
+      admittedFootprint += estimatedFootprint;
+      if (scratchOwner != null && threadScratch > getThreadScratch(scratchOwner))
+      {
+         scratchFootprints.put(scratchOwner, threadScratch);
+      }
+      ticket.baseline = getHeapUsed();
+      ticket.observedPeak = 0;
+      admittedTickets.add(ticket);
+      startSampler();
+      return ticket;
+   }
+
+
+   /**
+    * @return true, if the job fits next to the running jobs and the scratch memory of the pool, with the scratch of its
+    *         engine raised to threadScratch, unless scratchOwner is null.
+    */
+   private boolean fits(long estimatedFootprint, SeamEngine scratchOwner, long threadScratch)
+   {
+      long scratchFootprint = scratchOwner != null ? Math.max(0, threadScratch - getThreadScratch(scratchOwner)) : 0;
+      for (long footprint : scratchFootprints.values())
+      {
+         scratchFootprint += footprint;
+      }
+      return admittedTickets.isEmpty() || admittedFootprint + estimatedFootprint + scratchFootprint <= budget;
+   }
+
+
+   private long getThreadScratch(SeamEngine scratchOwner)
+   {
+      Long scratchFootprint = scratchFootprints.get(scratchOwner);
+      return scratchFootprint != null ? scratchFootprint : 0;
+   }
+
+
+   private synchronized void release(Ticket ticket)
+   {
+      if (admittedTickets.remove(ticket))
+      {
+         admittedFootprint -= ticket.estimatedFootprint;
+         ticket.sample(getHeapUsed());
+         notifyAll();
+      }
+   }
+
+
+   private long getHeapUsed()
+   {
+      return memoryBean.getHeapMemoryUsage().getUsed();
+   }
+
+
+   private void startSampler()
+   {
+      if (sampler != null)
+      {
+         return;
+      }
+      sampler = new Thread(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               while (sampleHeap())
+               {
+                  Thread.sleep(SAMPLE_INTERVAL);
+               }
+            }
+            catch (InterruptedException e)
+            {
+               // Closed, stop sampling
+            }
+         }
+      }, "AdmissionScheduler-sampler");
+      sampler.setDaemon(true);
+      sampler.start();
+   }
+
+
+   /**
+    * Updates the peak of all admitted jobs.
+    *
+    * @return false, if no job runs. The sampler ends then, the next admitted job starts a new one.
+    */
+   private synchronized boolean sampleHeap()
+   {
+      if (admittedTickets.isEmpty() || sampler != Thread.currentThread())
+      {
+         if (sampler == Thread.currentThread())
+         {
+            sampler = null;
+         }
+         return false;
+      }
+      long heapUsed = getHeapUsed();
+      for (Ticket ticket : admittedTickets)
+      {
+         ticket.sample(heapUsed);
+      }
+      return true;
+   }
+
+
+   /**
+    * Stops sampling the heap. Jobs admitted later start the sampler again, so a scheduler shared with others may be
+    * closed by any of them, e.g. when a {@link TileServer} stops.
+    */
+   @Override
+   public synchronized void close()
+   {
+      if (sampler != null)
+      {
+         sampler.interrupt();
+         sampler = null;
+      }
+   }
+
+
+   public long getBudget()
+   {
+      return budget;
+   }
+
+
+   /**
+    * @return Sum of the estimated footprints of the running jobs.
+    */
+   public synchronized long getAdmittedFootprint()
+   {
+      return admittedFootprint;
+   }
+
+
+   public synchronized int getRunningJobs()
+   {
+      return admittedTickets.size();
+   }
+
+
+   public synchronized int getWaitingJobs()
+   {
+      return waitingTickets.size();
+   }
+
+
+   /**
+    * An admitted job. Closing it releases the estimated footprint for other jobs.
+    */
+   public final class Ticket implements AutoCloseable, Comparable<Ticket>
+   {
+      private final long estimatedFootprint;
+      private final int priority;
+      private final long arrival;
+
+      // Heap in use when the job was admitted and the most seen above it since, guarded by the scheduler
+      private long baseline;
+      private long observedPeak;
+
+
+      Ticket(long estimatedFootprint, int priority, long arrival)
+      {
+         this.estimatedFootprint = estimatedFootprint;
+         this.priority = priority;
+         this.arrival = arrival;
+      }
+
+
+      private void sample(long heapUsed)
+      {
+         observedPeak = Math.max(observedPeak, heapUsed - baseline);
+      }
+
+
+      public long getEstimatedFootprint()
+      {
+         return estimatedFootprint;
+      }
+
+
+      /**
+       * @return The highest heap in use while the job ran, minus the heap in use when it started. Includes garbage not
+       *         yet collected and the memory of jobs running at the same time, so it is an upper bound of the actual
+       *         footprint of a job running alone.
+       */
+      public long getObservedPeak()
+      {
+         synchronized (AdmissionScheduler.this)
+         {
+            return observedPeak;
+         }
+      }
+
+
+      @Override
+      public void close()
+      {
+         release(this);
+      }
+
+
+      @Override
+      public int compareTo(Ticket other)
+      {
+         if (priority != other.priority)
+         {
+            return priority > other.priority ? -1 : 1;
+         }
+         return arrival < other.arrival ? -1 : arrival == other.arrival ? 0 : 1;
+      }
+   }
+}
@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.imageio.ImageIO;
+
+import edu.logic.graphs.BaseAreaGraph;
+import edu.logic.graphs.SeamEngine;
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Generates a tile set like {@link StrictWangTileGenerator}, but merges the tiles in separate worker JVMs
+ * ({@link TileWorker}), so that large jobs are not limited by the heap and garbage collector of a single JVM.
+ * The coordinator crops the samples and composes the edge tiles, each worker receives one tile at a time over a local
+ * socket and returns the merged tile. A tile, whose worker dies, is sent to a new worker, up to {@link #MAX_ATTEMPTS}
+ * times.
+ * <p>
+ * Usage: DistributedTileGenerator &lt;image&gt; &lt;folder&gt; [numberOfTiles] [tileResolution] [workers]
+ *
+ * @author agent
+ */
+public final class DistributedTileGenerator
+{
+   /**
+    * Number of attempts per tile, before the generation fails.
+    */
+   public final static int MAX_ATTEMPTS = 3;
+
+   private final static String TILEFORMAT = "png";
+
+   // A worker, that does not connect or answer within this time, counts as dead
+   private final static int CONNECT_TIMEOUT = 30 * 1000;
+   private final static int ANSWER_TIMEOUT = 5 * 60 * 1000;
+
+   // Crops the samples and composes the edge tiles
+   private final StrictWangTileGenerator generator;
+   // Number of tiles
+   private final int numberOfTiles;
+   // Width and height of the to be generated tiles
+   private final int tileResolution;
+   private final SeamEngine seamEngine;
+   // Number of worker processes
+   private final int workers;
+
+   private int seamBand = BaseAreaGraph.DEFAULT_SEAM_BAND;
+   // Passed to the worker JVMs, e.g. -Xmx1g
+   private List<String> workerOptions = new ArrayList<String>();
+   // Main class of the worker JVMs
+   private Class<?> workerClass = TileWorker.class;
+
+
+   public DistributedTileGenerator(BufferedImage inputImage, int numberOfTiles, int tileResolution, int workers)
+   {
+      this(inputImage, numberOfTiles, tileResolution, BaseAreaGraph.DEFAULT_SEAM_ENGINE, workers);
+   }
+
+
+   public DistributedTileGenerator(BufferedImage inputImage, int numberOfTiles, int tileResolution, SeamEngine seamEngine, int workers)
+   {
+      if (workers < 1)
+      {
+         throw new IllegalArgumentException("Workers must be at least 1.");
+      }
+      generator = new StrictWangTileGenerator(inputImage, numberOfTiles, tileResolution, seamEngine);
+      this.numberOfTiles = numberOfTiles;
+      this.tileResolution = tileResolution;
+      this.seamEngine = seamEngine;
+      this.workers = workers;
+   }
+
+
+   public static void main(String[] args) throws IOException, InterruptedException, ExecutionException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("Usage: DistributedTileGenerator <image> <folder> [numberOfTiles] [tileResolution] [workers]");
+         return;
+      }
+
+      BufferedImage inputImage = ImageIO.read(new File(args[0]));
+      final File folder = new File(args[1]);
+      int numberOfTiles = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+      int tileResolution = args.length > 3 ? Integer.parseInt(args[3]) : 128;
+      int workers = args.length > 4 ? Integer.parseInt(args[4]) : StrictWangTileGenerator.DEFAULT_PARALLELISM;
+
+      long startTime = System.nanoTime();
+      new DistributedTileGenerator(inputImage, numberOfTiles, tileResolution, workers).generate(new StrictWangTileGenerator.TileListener()
+      {
+         @Override
+         public void tileGenerated(BufferedImage tile, int iteration)
+         {
+            try
+            {
+               ImageIO.write(tile, TILEFORMAT, new File(folder, "tile" + iteration + "." + TILEFORMAT));
+            }
+            catch (IOException e)
+            {
+               throw new IllegalStateException(e);
+            }
+         }
+      });
+      System.out.println(String.format("%d tiles written in %.1f ms", numberOfTiles, (System.nanoTime() - startTime) / 1e6));
+   }
+
+
+   /**
+    * Sets the width of the band around each seam, that is smoothed.
+    *
+    * @see BaseAreaGraph#setSeamBand
+    */
+   public void setSeamBand(int seamBand)
+   {
+      if (seamBand < 1)
+      {
+         throw new IllegalArgumentException("Seam band must be at least 1.");
+      }
+      this.seamBand = seamBand;
+   }
+
+
+   /**
+    * Sets the options of the worker JVMs, e.g. their heap size.
+    */
+   public void setWorkerOptions(String... workerOptions)
+   {
+      this.workerOptions = new ArrayList<String>(Arrays.asList(workerOptions));
+   }
+
+
+   /**
+    * Sets the main class of the worker JVMs, e.g. a worker that dies in a test. It must speak the protocol of
+    * {@link TileWorker} and take the same arguments.
+    */
+   void setWorkerClass(Class<?> workerClass)
+   {
+      this.workerClass = workerClass;
+   }
+
+
+   /**
+    * Starts the workers, generates the tiles and hands them to the listener in the order of their iteration. Returns
+    * after the last tile, the workers are stopped in any case. Interrupting the calling thread cancels the generation.
+    *
+    * @throws InterruptedException
+    *            If the generation has been cancelled.
+    * @throws ExecutionException
+    *            If a tile failed in a worker or its workers died {@link #MAX_ATTEMPTS} times.
+    */
+   public void generate(StrictWangTileGenerator.TileListener listener) throws InterruptedException, ExecutionException
+   {
+      BlockingQueue<Integer> pendingTiles = new LinkedBlockingQueue<Integer>();
+      for (int i = 0; i < numberOfTiles; i++)
+      {
+         pendingTiles.add(i);
+      }
+      BlockingQueue<TileResult> results = new LinkedBlockingQueue<TileResult>();
+      AtomicIntegerArray attempts = new AtomicIntegerArray(numberOfTiles);
+      ConcurrentLinkedQueue<Process> processes = new ConcurrentLinkedQueue<Process>();
+
+      ExecutorService connections = Executors.newFixedThreadPool(Math.min(workers, numberOfTiles));
+      try
+      {
+         for (int i = 0; i < Math.min(workers, numberOfTiles); i++)
+         {
+            connections.execute(new WorkerConnection(pendingTiles, results, attempts, processes));
+         }
+
+         // Results arrive in any order, the listener gets them in order
+         BufferedImage[] tiles = new BufferedImage[numberOfTiles];
+         int nextTile = 0;
+         for (int i = 0; i < numberOfTiles; i++)
+         {
+            TileResult result = results.take();
+            if (result.failure != null)
+            {
+               throw new ExecutionException("Tile " + result.iteration + " failed.", result.failure);
+            }
+            tiles[result.iteration] = ImageUtil.createImage(result.pixels, tileResolution, tileResolution);
+            while (nextTile < numberOfTiles && tiles[nextTile] != null)
+            {
+               listener.tileGenerated(tiles[nextTile], nextTile);
+               tiles[nextTile++] = null;
+            }
+         }
+      }
+      finally
+      {
+         // Blocked connections return, once their worker is gone
+         connections.shutdownNow();
+         for (Process process : processes)
+         {
+            process.destroy();
+         }
+      }
+   }
+
+
+   /**
+    * Starts a worker JVM, that connects to serverSocket.
+    */
+   private Process startWorker(ServerSocket serverSocket) throws IOException
+   {
+      List<String> command = new ArrayList<String>();
+      command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+      command.add("-Djava.awt.headless=true");
+      command.addAll(workerOptions);
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(workerClass.getName());
+      command.add(String.valueOf(serverSocket.getLocalPort()));
+      return new ProcessBuilder(command).inheritIO().start();
+   }
+
+
+   /**
+    * Feeds one worker process with tiles. Starts the worker, when there is a tile for it, and a new one, if it dies.
+    */
+   private final class WorkerConnection implements Runnable
+   {
+      private final BlockingQueue<Integer> pendingTiles;
+      private final BlockingQueue<TileResult> results;
+      private final AtomicIntegerArray attempts;
+      private final ConcurrentLinkedQueue<Process> processes;
+
+      private Process process;
+      private Socket socket;
+      private DataInputStream input;
+      private DataOutputStream output;
+
+
+      WorkerConnection(BlockingQueue<Integer> pendingTiles, BlockingQueue<TileResult> results, AtomicIntegerArray attempts,
+         ConcurrentLinkedQueue<Process> processes)
+      {
+         this.pendingTiles = pendingTiles;
+         this.results = results;
+         this.attempts = attempts;
+         this.processes = processes;
+      }
+
+
+      @Override
+      public void run()
+      {
+         int iteration = -1;
+         try
+         {
+            while (true)
+            {
+               iteration = pendingTiles.take();
+               // Created again for a retry: the sample is random anyway
+               BufferedImage edgeTile = generator.createEdgeTile(iteration);
+               BufferedImage sampleTile = generator.createSampleTile();
+               try
+               {
+                  if (socket == null)
+                  {
+                     connect();
+                  }
+                  results.put(mergeTile(iteration, edgeTile, sampleTile));
+               }
+               catch (IOException e)
+               {
+                  if (Thread.currentThread().isInterrupted())
+                  {
+                     return;
+                  }
+                  // The worker died or hangs, the tile is tried again
+                  disconnect();
+                  if (attempts.incrementAndGet(iteration) < MAX_ATTEMPTS)
+                  {
+                     pendingTiles.put(iteration);
+                  }
+                  else
+                  {
+                     results.put(new TileResult(iteration, null, e));
+                  }
+               }
+            }
+         }
+         catch (InterruptedException e)
+         {
+            // Generation is done or cancelled
+         }
+         catch (Throwable e)
+         {
+            // E.g. out of memory while creating the tiles: the generation fails, instead of waiting for the tile forever
+            results.offer(new TileResult(iteration, null, e));
+         }
+         finally
+         {
+            disconnect();
+         }
+      }
+
+
+      private void connect() throws IOException
+      {
+         try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()))
+         {
+            serverSocket.setSoTimeout(CONNECT_TIMEOUT);
+            process = startWorker(serverSocket);
+            processes.add(process);
+            socket = serverSocket.accept();
+         }
+         socket.setSoTimeout(ANSWER_TIMEOUT);
+         input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+         output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      }
+
+
+      private void disconnect()
+      {
+         if (socket != null)
+         {
+            try
+            {
+               socket.close();
+            }
+            catch (IOException e)
+            {
+               // Gone anyway
+            }
+            socket = null;
+         }
+         if (process != null)
+         {
+            process.destroy();
+            processes.remove(process);
+            process = null;
+         }
+      }
+
+
+      /**
+       * Sends the tile to the worker and waits for the result.
+       */
+      private TileResult mergeTile(int iteration, BufferedImage edgeTile, BufferedImage sampleTile) throws IOException
+      {
+         output.writeInt(TileWorker.JOB);
+         output.writeInt(tileResolution);
+         output.writeUTF(seamEngine.name());
+         output.writeInt(seamBand);
+         TileWorker.writePixels(output, ImageUtil.getPixels(edgeTile));
+         TileWorker.writePixels(output, ImageUtil.getPixels(sampleTile));
+         output.flush();
+
+         int tag = input.readInt();
+         if (tag == TileWorker.RESULT)
+         {
+            return new TileResult(iteration, TileWorker.readPixels(input, tileResolution * tileResolution), null);
+         }
+         else if (tag == TileWorker.FAILURE)
+         {
+            // Would fail again in any worker
+            return new TileResult(iteration, null, new IllegalStateException(input.readUTF()));
+         }
+         throw new IOException("Unexpected message " + tag + ".");
+      }
+   }
+
+
+   /**
+    * The merged pixels of a tile or the reason, why it failed.
+    */
+   private final static class TileResult
+   {
+      private final int iteration;
+      private final int[] pixels;
+      private final Throwable failure;
+
+
+      TileResult(int iteration, int[] pixels, Throwable failure)
+      {
+         this.iteration = iteration;
+         this.pixels = pixels;
+         this.failure = failure;
+      }
+   }
+}
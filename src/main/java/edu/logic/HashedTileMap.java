@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.util.Arrays;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * An endless map of tiles, that gives the tile of any cell without looking at other cells. Unlike
+ * {@link TileMapGenerator} the colors are chosen for the edges instead of the tiles: each cell owns its bottom and right
+ * edge, their colors are taken from a hash of the seed and the position of the cell. The cells below and to the right
+ * hash the same position for their top and left edge, so they agree on the colors. The tile of a cell is then looked up
+ * by the colors of its 4 edges.
+ * <p>
+ * This needs a tile for every combination of edge colors, like the set of 16 tiles of
+ * {@link StrictWangTileGenerator#getEdgeTileIndices}. Any part of the map can be generated on demand and by any number
+ * of threads at once.
+ *
+ * @author agent
+ */
+public final class HashedTileMap
+{
+   // Number of tiles
+   private final int numberOfTiles;
+   private final long seed;
+   // Colors of the top and bottom and of the left and right edges of the set
+   private final int[] horizontalColors;
+   private final int[] verticalColors;
+   // Per top, right, bottom and left color: the tile
+   private final short[] tileTable;
+   // Color of the bottom edge of each tile
+   private final int[] bottomColors;
+
+
+   /**
+    * @throws IllegalArgumentException
+    *            If the set misses a combination of edge colors.
+    */
+   public HashedTileMap(int numberOfTiles, long seed)
+   {
+      int[][] edgeImageIndices = StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles);
+      this.numberOfTiles = numberOfTiles;
+      this.seed = seed;
+
+      boolean[] isHorizontalColor = new boolean[StrictWangTileGenerator.NUMBER_OF_EDGES];
+      boolean[] isVerticalColor = new boolean[StrictWangTileGenerator.NUMBER_OF_EDGES];
+      tileTable = new short[StrictWangTileGenerator.NUMBER_OF_EDGES * StrictWangTileGenerator.NUMBER_OF_EDGES
+                            * StrictWangTileGenerator.NUMBER_OF_EDGES * StrictWangTileGenerator.NUMBER_OF_EDGES];
+      Arrays.fill(tileTable, (short) -1);
+      bottomColors = new int[numberOfTiles];
+      for (int tile = 0; tile < numberOfTiles; tile++)
+      {
+         int[] colors = edgeImageIndices[tile];
+         isHorizontalColor[colors[ImageUtil.TOP_AREA_INDEX]] = true;
+         isHorizontalColor[colors[ImageUtil.BOTTOM_AREA_INDEX]] = true;
+         isVerticalColor[colors[ImageUtil.RIGHT_AREA_INDEX]] = true;
+         isVerticalColor[colors[ImageUtil.LEFT_AREA_INDEX]] = true;
+         bottomColors[tile] = colors[ImageUtil.BOTTOM_AREA_INDEX];
+         tileTable[getTableIndex(colors[ImageUtil.TOP_AREA_INDEX], colors[ImageUtil.RIGHT_AREA_INDEX], colors[ImageUtil.BOTTOM_AREA_INDEX],
+                                 colors[ImageUtil.LEFT_AREA_INDEX])] = (short) tile;
+      }
+      horizontalColors = toColors(isHorizontalColor);
+      verticalColors = toColors(isVerticalColor);
+
+      for (int top : horizontalColors)
+      {
+         for (int right : verticalColors)
+         {
+            for (int bottom : horizontalColors)
+            {
+               for (int left : verticalColors)
+               {
+                  if (tileTable[getTableIndex(top, right, bottom, left)] < 0)
+                  {
+                     throw new IllegalArgumentException("Set of " + numberOfTiles + " tiles misses a combination of edge colors.");
+                  }
+               }
+            }
+         }
+      }
+   }
+
+
+   private static int[] toColors(boolean[] isColor)
+   {
+      int[] colors = new int[0];
+      for (int color = 0; color < isColor.length; color++)
+      {
+         if (isColor[color])
+         {
+            colors = Arrays.copyOf(colors, colors.length + 1);
+            colors[colors.length - 1] = color;
+         }
+      }
+      return colors;
+   }
+
+
+   private static int getTableIndex(int top, int right, int bottom, int left)
+   {
+      return ((top * StrictWangTileGenerator.NUMBER_OF_EDGES + right) * StrictWangTileGenerator.NUMBER_OF_EDGES + bottom)
+             * StrictWangTileGenerator.NUMBER_OF_EDGES + left;
+   }
+
+
+   public int getNumberOfTiles()
+   {
+      return numberOfTiles;
+   }
+
+
+   /**
+    * @return The tile of the cell in column x and row y.
+    */
+   public int getTile(int x, int y)
+   {
+      long hash = hash(x, y);
+      return tileTable[getTableIndex(getBottomColor(hash(x, y - 1)), getRightColor(hash), getBottomColor(hash), getRightColor(hash(x - 1, y)))];
+   }
+
+
+   /**
+    * Writes the tiles of a rectangle of cells row by row into chunk. Each cell is hashed once, the top edges of a row are
+    * taken from the tiles of the row above.
+    *
+    * @param chunk
+    *           Must have room for columns * rows tiles.
+    */
+   public void fill(int startX, int startY, int columns, int rows, short[] chunk)
+   {
+      if (columns < 0 || rows < 0 || (long) columns * rows > chunk.length)
+      {
+         throw new IllegalArgumentException("Chunk must have room for " + columns + " x " + rows + " tiles.");
+      }
+
+      for (int y = 0; y < rows; y++)
+      {
+         int row = y * columns;
+         int leftColor = getRightColor(hash(startX - 1, startY + y));
+         for (int x = 0; x < columns; x++)
+         {
+            int topColor = y == 0 ? getBottomColor(hash(startX + x, startY - 1)) : bottomColors[chunk[row - columns + x]];
+            long hash = hash(startX + x, startY + y);
+            int rightColor = getRightColor(hash);
+            chunk[row + x] = tileTable[getTableIndex(topColor, rightColor, getBottomColor(hash), leftColor)];
+            leftColor = rightColor;
+         }
+      }
+   }
+
+
+   /**
+    * @return The color of the bottom edge of the cell, taken from the lower 32 bits of its hash.
+    */
+   private int getBottomColor(long hash)
+   {
+      return horizontalColors[(int) ((hash & 0xFFFFFFFFL) * horizontalColors.length >>> 32)];
+   }
+
+
+   /**
+    * @return The color of the right edge of the cell, taken from the upper 32 bits of its hash.
+    */
+   private int getRightColor(long hash)
+   {
+      return verticalColors[(int) ((hash >>> 32) * verticalColors.length >>> 32)];
+   }
+
+
+   private long hash(int x, int y)
+   {
+      return TileMapGenerator.mix(seed ^ ((long) x << 32 | y & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L);
+   }
+}
@@ -10,26 +10,31 @@
  *******************************************************************************/
 package edu.logic;
 
-import java.awt.Color;
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import edu.logic.graphs.BaseAreaGraph;
 import edu.logic.graphs.BottomAreaGraph;
-import edu.logic.graphs.GraphNode;
+import edu.logic.graphs.CostField;
 import edu.logic.graphs.LeftAreaGraph;
+import edu.logic.graphs.PixelTopology;
 import edu.logic.graphs.RightAreaGraph;
+import edu.logic.graphs.SeamEngine;
 import edu.logic.graphs.TopAreaGraph;
 import edu.logic.util.ImageUtil;
-import edu.ui.ApplicationWindow;
 
 
 /**
@@ -46,118 +51,440 @@ public final class StrictWangTileGenerator
    private final static int BLUE = 2;
    private final static int RED = 3;
 
-   private final static int NUMBER_OF_EDGES = 4;
+   final static int NUMBER_OF_EDGES = 4;
+
+   /**
+    * Number of tiles generated in parallel, if none is specified.
+    */
+   public final static int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
-   // The Object to send my results to
-   private final ApplicationWindow employer;
    // Number of tiles
    private final int numberOfTiles;
    // Width and height of the to be generated tiles
    private final int tileResolution;
-   // Sample images
-   private final List<BufferedImage> sampleTiles;
-   // Edge images
-   private final List<BufferedImage> edgeTiles;
-   // One graph for each side (top, right, bottom, left)
+   // Image the samples are cropped from
+   private final BufferedImage inputImage;
+   // Moved edge images, the edge tiles are combined from
+   private final List<int[]> edgePixels;
+   // Colors of the areas of each edge tile
+   private final int[][] edgeImageIndices;
+   // One graph for each side (top, right, bottom, left), shared by all threads
    private final List<? extends BaseAreaGraph> graphs;
+   // Number of tiles generated in parallel
+   private int parallelism = DEFAULT_PARALLELISM;
+   // Whether the 4 areas of a tile are solved in parallel, too
+   private boolean parallelAreas;
 
 
-   public StrictWangTileGenerator(ApplicationWindow employer, BufferedImage inputImage, int numberOfTiles, int tileResolution)
+   /**
+    * Receives the tiles of {@link StrictWangTileGenerator#generate}.
+    */
+   public interface TileListener
    {
-      this.numberOfTiles = numberOfTiles;
-      this.tileResolution = tileResolution;
-      this.employer = employer;
-
-      // Generate random samples
-      sampleTiles = ImageUtil.generateSamples(inputImage, tileResolution, numberOfTiles);
+      /**
+       * Called on the thread that called generate, in the order the tiles are completed.
+       *
+       * @param iteration
+       *           Index of the tile within the set.
+       */
+      void tileGenerated(BufferedImage tile, int iteration);
+   }
 
-      // Generate edgeTiles using combinations of edge images
-      edgeTiles = generateInitialEdgeTiles(ImageUtil.generateSamples(inputImage, tileResolution, NUMBER_OF_EDGES), getEdgeTileIndices(numberOfTiles));
 
-      // For each tile: find min cut paths between sampleTile and tile overlay in each of the 4 areas
-      graphs = createGraphs(tileResolution);
+   /**
+    * Generates the tiles of {@link StrictWangTileGenerator#generate(int, TileSource, TileListener, ExecutorService)}.
+    */
+   interface TileSource
+   {
+      /**
+       * Called concurrently for different tiles.
+       */
+      BufferedImage generateTile(int iteration) throws Exception;
    }
 
 
    /**
-    * Core function. Generates tile.
-    *
-    * @return a new Tile.
+    * A tile, that either starts or is withdrawn by cancel, whichever comes first. A withdrawn tile counts as stopped,
+    * even if the executor never runs it, e.g. after a shutdown.
     */
-   public void generate()
+   private final static class TileTask extends FutureTask<BufferedImage>
    {
-      ExecutorService executorService = Executors.newSingleThreadExecutor();
-      List<Future<BufferedImage>> futures = new ArrayList<Future<BufferedImage>>();
-      for (int i = 0; i < numberOfTiles; i++)
+      // Index of the tile within the set
+      private final int iteration;
+      // Receives the task, when it is done or cancelled
+      private final BlockingQueue<TileTask> completedTasks;
+      // Set by the first of run and cancel
+      private final AtomicBoolean claimed = new AtomicBoolean();
+      // Released, after the tile has run or has been withdrawn
+      private final CountDownLatch stopped = new CountDownLatch(1);
+
+
+      TileTask(final TileSource source, final int iteration, BlockingQueue<TileTask> completedTasks)
       {
-         final int iteration = i;
-         futures.add(executorService.submit(new Callable<BufferedImage>()
+         super(new Callable<BufferedImage>()
          {
             @Override
             public BufferedImage call() throws Exception
             {
-               BufferedImage edgeTile = edgeTiles.get(iteration);
-               BufferedImage sampleTile = sampleTiles.get(iteration);
+               return source.generateTile(iteration);
+            }
+         });
+         this.iteration = iteration;
+         this.completedTasks = completedTasks;
+      }
 
-               // For each triangle area of the image: Create the graph, find the lowest cost path
-               // and use those information to merge the edge and sample image.
-               BufferedImage newTile = new BufferedImage(tileResolution, tileResolution, BufferedImage.TYPE_INT_ARGB);
-               Graphics returnGraphic = newTile.createGraphics();
 
-               for (BaseAreaGraph areaGraph : graphs)
-               {
-                  areaGraph.execute(returnGraphic, edgeTile, sampleTile);
-               }
+      @Override
+      public void run()
+      {
+         if (claimed.compareAndSet(false, true))
+         {
+            try
+            {
+               super.run();
+            }
+            finally
+            {
+               stopped.countDown();
+            }
+         }
+      }
+
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning)
+      {
+         if (claimed.compareAndSet(false, true))
+         {
+            // Withdrawn, run will not start the tile anymore
+            stopped.countDown();
+         }
+         return super.cancel(mayInterruptIfRunning);
+      }
+
+
+      @Override
+      protected void done()
+      {
+         completedTasks.add(this);
+      }
+
 
-               return newTile;
+      /**
+       * Waits, until the tile has stopped. Keeps waiting, if the thread is interrupted, and sets its interrupt flag again
+       * afterwards.
+       */
+      void awaitStopped()
+      {
+         boolean interrupted = false;
+         while (true)
+         {
+            try
+            {
+               stopped.await();
+               break;
             }
-         }));
+            catch (InterruptedException e)
+            {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+
+   /**
+    * Solves one area of a tile, see {@link StrictWangTileGenerator#mergeTile}.
+    */
+   private final static class AreaTask extends RecursiveAction
+   {
+      private final static long serialVersionUID = 1L;
+
+      private final BaseAreaGraph areaGraph;
+      private final int[] newPixels;
+      private final int[] edgePixels;
+      private final int[] samplePixels;
+      private final CostField costField;
+
+
+      AreaTask(BaseAreaGraph areaGraph, int[] newPixels, int[] edgePixels, int[] samplePixels, CostField costField)
+      {
+         this.areaGraph = areaGraph;
+         this.newPixels = newPixels;
+         this.edgePixels = edgePixels;
+         this.samplePixels = samplePixels;
+         this.costField = costField;
+      }
+
+
+      @Override
+      protected void compute()
+      {
+         areaGraph.execute(newPixels, edgePixels, samplePixels, costField);
+      }
+   }
+
+
+   public StrictWangTileGenerator(BufferedImage inputImage, int numberOfTiles, int tileResolution)
+   {
+      this(inputImage, numberOfTiles, tileResolution, BaseAreaGraph.DEFAULT_SEAM_ENGINE);
+   }
+
+
+   public StrictWangTileGenerator(BufferedImage inputImage, int numberOfTiles, int tileResolution, SeamEngine seamEngine)
+   {
+      this.numberOfTiles = numberOfTiles;
+      this.tileResolution = tileResolution;
+
+      // Sample and edge tile of each tile are only created, when the tile is generated,
+      // so that only the tiles in progress take up memory
+      this.inputImage = ImageUtil.toIntArgb(inputImage);
+      edgePixels = shiftEdgeImages(ImageUtil.generateSamples(this.inputImage, tileResolution, NUMBER_OF_EDGES));
+      edgeImageIndices = getEdgeTileIndices(numberOfTiles);
+
+      // For each tile: find min cut paths between sampleTile and tile overlay in each of the 4 areas
+      graphs = createGraphs(tileResolution, seamEngine);
+   }
+
+
+   /**
+    * Core function. Generates the tiles on a work stealing pool of {@link #setParallelism} threads and hands each of
+    * them to the listener as soon as it is done. Returns after the last tile, the pool is shut down in any case.
+    * Interrupting the calling thread cancels the generation, including the seam searches in progress.
+    *
+    * @throws InterruptedException
+    *            If the generation has been cancelled.
+    * @throws ExecutionException
+    *            If a tile failed, the remaining tiles are cancelled then.
+    */
+   public void generate(TileListener listener) throws InterruptedException, ExecutionException
+   {
+      int tasks = parallelAreas ? graphs.size() * numberOfTiles : numberOfTiles;
+      ExecutorService executorService = new ForkJoinPool(Math.max(1, Math.min(parallelism, tasks)));
+      try
+      {
+         generate(listener, executorService);
+      }
+      finally
+      {
+         executorService.shutdownNow();
+      }
+   }
+
+
+   /**
+    * Same as {@link #generate(TileListener)}, but generates the tiles on a pool shared with other generations, e.g. of
+    * a server. The pool stays up, only the tiles of this generation are cancelled on failure or interrupt: the ones not
+    * started yet are withdrawn, the ones in progress interrupted. Returns only after they have stopped.
+    * {@link #setParallelism} has no effect then, the areas are solved in parallel only on a {@link ForkJoinPool}.
+    */
+   public void generate(TileListener listener, ExecutorService executorService) throws InterruptedException, ExecutionException
+   {
+      generate(numberOfTiles, new TileSource()
+      {
+         @Override
+         public BufferedImage generateTile(int iteration)
+         {
+            return StrictWangTileGenerator.this.generateTile(iteration);
+         }
+      }, listener, executorService);
+   }
+
+
+   /**
+    * Generates the tiles of the source on the executor and hands them to the listener, see
+    * {@link #generate(TileListener, ExecutorService)}.
+    * Each tile is executed as a {@link FutureTask} of its own, whose cancel interrupts the thread running it on any
+    * executor. The futures returned by submit of a {@link ForkJoinPool} ignore the interrupt.
+    */
+   static void generate(int numberOfTiles, TileSource source, TileListener listener, ExecutorService executorService)
+      throws InterruptedException, ExecutionException
+   {
+      BlockingQueue<TileTask> completedTasks = new LinkedBlockingQueue<TileTask>();
+      List<TileTask> tasks = new ArrayList<TileTask>();
+      try
+      {
+         for (int i = 0; i < numberOfTiles; i++)
+         {
+            TileTask task = new TileTask(source, i, completedTasks);
+            tasks.add(task);
+            executorService.execute(task);
+         }
+         for (int i = 0; i < numberOfTiles; i++)
+         {
+            TileTask task = completedTasks.take();
+            listener.tileGenerated(task.get(), task.iteration);
+         }
       }
-      for (int i = 0; i < numberOfTiles; i++)
+      finally
       {
-         try
+         // Interrupts the seam searches still in progress, a no-op for the tiles already done
+         for (TileTask task : tasks)
          {
-            employer.setImage(futures.get(i).get(), i);
+            task.cancel(true);
          }
-         catch (InterruptedException | ExecutionException e)
+         // No tile keeps running on a shared pool, after the generation has ended
+         for (TileTask task : tasks)
          {
-            e.printStackTrace();
+            task.awaitStopped();
          }
       }
    }
 
 
    /**
-    * Combines the edge images into 8 initial images.
+    * Generates a single tile, including its sample and edge tile. Only reads shared state, so tiles can be generated
+    * concurrently.
+    * Must run on a {@link ForkJoinPool}, if the areas are solved in parallel.
     */
-   private List<BufferedImage> generateInitialEdgeTiles(List<BufferedImage> edgeTiles, int[][] edgeImageIndices)
+   private BufferedImage generateTile(int iteration)
+   {
+      int[] newPixels = mergeTile(graphs, createEdgeTile(iteration), createSampleTile(), parallelAreas);
+      return ImageUtil.createImage(newPixels, tileResolution, tileResolution);
+   }
+
+
+   /**
+    * @return A random sample of the input image, the base of a new tile.
+    */
+   BufferedImage createSampleTile()
+   {
+      return ImageUtil.generateSamples(inputImage, tileResolution, 1).get(0);
+   }
+
+
+   /**
+    * @return The combination of edge images of a tile.
+    */
+   BufferedImage createEdgeTile(int iteration)
+   {
+      return composeEdgeTile(edgePixels, edgeImageIndices[iteration], tileResolution);
+   }
+
+
+   /**
+    * For each triangle area of the image: Creates the graph, finds the lowest cost path and uses those information to
+    * merge the edge and sample image.
+    *
+    * @param graphs
+    *           As returned by {@link #createGraphs}.
+    * @return The pixels of the tile.
+    */
+   static int[] mergeTile(List<? extends BaseAreaGraph> graphs, BufferedImage edgeTile, BufferedImage sampleTile, boolean parallelAreas)
+   {
+      int tileResolution = edgeTile.getWidth();
+      int[] edgePixels = ImageUtil.getPixels(edgeTile);
+      int[] samplePixels = ImageUtil.getPixels(sampleTile);
+      int[] newPixels = new int[tileResolution * tileResolution];
+
+      // Difference of both images, shared by all areas
+      CostField costField = new CostField(PixelTopology.forResolution(tileResolution), edgeTile, sampleTile);
+      if (parallelAreas)
+      {
+         // Each area writes a disjoint part of newPixels
+         List<RecursiveAction> areaTasks = new ArrayList<RecursiveAction>();
+         for (BaseAreaGraph areaGraph : graphs)
+         {
+            areaTasks.add(new AreaTask(areaGraph, newPixels, edgePixels, samplePixels, costField));
+         }
+         // Returns after all areas are done
+         ForkJoinTask.invokeAll(areaTasks);
+      }
+      else
+      {
+         for (BaseAreaGraph areaGraph : graphs)
+         {
+            areaGraph.execute(newPixels, edgePixels, samplePixels, costField);
+         }
+      }
+      return newPixels;
+   }
+
+
+   /**
+    * Sets the number of tiles generated in parallel. Takes effect with the next call of {@link #generate}.
+    */
+   public void setParallelism(int parallelism)
+   {
+      if (parallelism < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1.");
+      }
+      this.parallelism = parallelism;
+   }
+
+
+   /**
+    * Sets whether the 4 areas of each tile are solved in parallel, in addition to the tiles themselves. Helps, if there
+    * are fewer tiles than threads, e.g. for 4 tiles on a machine with many cores.
+    */
+   public void setParallelAreas(boolean parallelAreas)
+   {
+      this.parallelAreas = parallelAreas;
+   }
+
+
+   /**
+    * Sets the width of the band around each seam, that is smoothed.
+    *
+    * @see BaseAreaGraph#setSeamBand
+    */
+   public void setSeamBand(int seamBand)
+   {
+      for (BaseAreaGraph areaGraph : graphs)
+      {
+         areaGraph.setSeamBand(seamBand);
+      }
+   }
+
+
+   /**
+    * Moves the pixels of the 4 edge images up / right by half the images width to allow seamless tiling.
+    *
+    * @return The pixels of the moved edge images, as used by {@link #composeEdgeTile}.
+    */
+   static List<int[]> shiftEdgeImages(List<BufferedImage> edgeTiles)
    {
-      // Move pixels of edgeImages up / right by half the images width to allow seamless tiling
       BufferedImage yellowEdgeTile = ImageUtil.moveUpHalfway(edgeTiles.get(YELLOW));
       BufferedImage greenEdgeTile = ImageUtil.moveRightHalfway(edgeTiles.get(GREEN));
       BufferedImage blueEdgeTile = ImageUtil.moveUpHalfway(edgeTiles.get(BLUE));
       BufferedImage redEdgeTile = ImageUtil.moveRightHalfway(edgeTiles.get(RED));
-      edgeTiles = Arrays.asList(yellowEdgeTile, greenEdgeTile, blueEdgeTile, redEdgeTile);
 
-      List<BufferedImage> combinedEdgeTiles = new ArrayList<BufferedImage>();
-      for (int i = 0; i < numberOfTiles; i++)
+      List<int[]> edgePixels = new ArrayList<int[]>();
+      for (BufferedImage edgeTile : Arrays.asList(yellowEdgeTile, greenEdgeTile, blueEdgeTile, redEdgeTile))
+      {
+         edgePixels.add(ImageUtil.getPixels(edgeTile));
+      }
+      return edgePixels;
+   }
+
+
+   /**
+    * Combines the moved edge images into one initial image. Each area is copied row segment by row segment from the edge
+    * image of its color.
+    *
+    * @param edgeImageIndices
+    *           The color of each area, one row of {@link #getEdgeTileIndices}.
+    */
+   static BufferedImage composeEdgeTile(List<int[]> edgePixels, int[] edgeImageIndices, int tileResolution)
+   {
+      PixelTopology topology = PixelTopology.forResolution(tileResolution);
+      int[] newPixels = new int[tileResolution * tileResolution];
+      for (int y = 0; y < tileResolution; y++)
       {
-         BufferedImage newTile = new BufferedImage(tileResolution, tileResolution, BufferedImage.TYPE_INT_ARGB);
-         Graphics returnGraphics = newTile.createGraphics();
-         for (int y = 0; y < tileResolution; y++)
+         for (int areaIndex = ImageUtil.TOP_AREA_INDEX; areaIndex <= ImageUtil.LEFT_AREA_INDEX; areaIndex++)
          {
-            for (int x = 0; x < tileResolution; x++)
-            {
-               // Get index of correct edgeImage derived from x and y coordinate
-               int idx = edgeImageIndices[i][ImageUtil.getAreaIndex(x, y, tileResolution)];
-               BufferedImage subImage = edgeTiles.get(idx);
-               returnGraphics.setColor(new Color(subImage.getRGB(x, y)));
-               returnGraphics.drawLine(x, y, x, y);
-            }
+            // Get index of correct edgeImage derived from the area
+            int[] subPixels = edgePixels.get(edgeImageIndices[areaIndex]);
+            int start = y * tileResolution + topology.getAreaStart(areaIndex, y);
+            System.arraycopy(subPixels, start, newPixels, start, topology.getAreaEnd(areaIndex, y) - topology.getAreaStart(areaIndex, y));
          }
-         combinedEdgeTiles.add(newTile);
       }
-      return combinedEdgeTiles;
+      return ImageUtil.createImage(newPixels, tileResolution, tileResolution);
    }
 
 
@@ -218,45 +545,13 @@ public final class StrictWangTileGenerator
    /**
     * @return A list of graphs one for each triangle area of the image.
     */
-   private List<? extends BaseAreaGraph> createGraphs(int tileResolution)
+   static List<? extends BaseAreaGraph> createGraphs(int tileResolution, SeamEngine seamEngine)
    {
-      // Create nodes
-      GraphNode[][] graphNodes = new GraphNode[tileResolution][tileResolution];
-      for (int y = 0; y < tileResolution; y++)
-      {
-         for (int x = 0; x < tileResolution; x++)
-         {
-            GraphNode newGraphNode = new GraphNode(x, y, tileResolution);
-            graphNodes[x][y] = newGraphNode;
-         }
-      }
-      // Create neighbor relations
-      for (int y = 0; y < tileResolution; y++)
-      {
-         for (int x = 0; x < tileResolution; x++)
-         {
-            if (x != 0)
-            {
-               graphNodes[x][y].setLeftNeighbor(graphNodes[x - 1][y]);
-            }
-            if (x != tileResolution - 1)
-            {
-               graphNodes[x][y].setRightNeighbor(graphNodes[x + 1][y]);
-            }
-            if (y != 0)
-            {
-               graphNodes[x][y].setTopNeighbor(graphNodes[x][y - 1]);
-            }
-            if (y != tileResolution - 1)
-            {
-               graphNodes[x][y].setBottomNeighbor(graphNodes[x][y + 1]);
-            }
-         }
-      }
+      PixelTopology topology = PixelTopology.forResolution(tileResolution);
 
-      return Arrays.asList(new TopAreaGraph(graphNodes, tileResolution),
-                           new RightAreaGraph(graphNodes, tileResolution),
-                           new BottomAreaGraph(graphNodes, tileResolution),
-                           new LeftAreaGraph(graphNodes, tileResolution));
+      return Arrays.asList(new TopAreaGraph(topology, seamEngine),
+                           new RightAreaGraph(topology, seamEngine),
+                           new BottomAreaGraph(topology, seamEngine),
+                           new LeftAreaGraph(topology, seamEngine));
    }
 }
@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.imageio.ImageIO;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Writes the texture described by a tile set and a map of it, e.g. of {@link TileMapGenerator}, as a stream. The
+ * texture is rendered line by line from the pixels of the tiles and written right away, so only one line is held in
+ * memory, no matter how large the texture is.
+ * <p>
+ * Textures are written as png (8 bit rgb) or raw: 3 bytes of rgb per pixel in row major order without any header, as
+ * {@link TileWorker} sends tiles. The alpha channel is dropped, tiles are opaque. A raw file can also be composed in
+ * parallel: bands of lines are mapped into memory and filled by several threads at once, the page cache writes them.
+ * <p>
+ * Usage: TextureWriter &lt;folder&gt; &lt;texture&gt; [numberOfTiles] [columns] [rows], reads tile0.png, tile1.png ...
+ * from the folder and writes a png or, for a name ending in .raw, a raw texture of columns x rows randomly placed tiles.
+ *
+ * @author agent
+ */
+public final class TextureWriter
+{
+   private final static byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+   private final static int PNG_COLOR_TYPE_RGB = 2;
+   private final static int PNG_FILTER_SUB = 1;
+   // Bytes of compressed image data per IDAT chunk
+   private final static int PNG_CHUNK_SIZE = 64 * 1024;
+   // Most bytes of a raw file mapped at once, a mapping holds at most 2 GB
+   private final static int MAX_BAND_SIZE = 256 * 1024 * 1024;
+
+   // Width and height of the tiles
+   private final int tileResolution;
+   // Packed rgb values of each tile in row major order
+   private final int[][] tilePixels;
+   // Number of bands composed in parallel
+   private int parallelism = StrictWangTileGenerator.DEFAULT_PARALLELISM;
+
+
+   public TextureWriter(BufferedImage[] tiles)
+   {
+      if (tiles.length == 0)
+      {
+         throw new IllegalArgumentException("Tiles must not be empty.");
+      }
+      tileResolution = tiles[0].getWidth();
+      tilePixels = new int[tiles.length][];
+      for (int i = 0; i < tiles.length; i++)
+      {
+         if (tiles[i].getWidth() != tileResolution || tiles[i].getHeight() != tileResolution)
+         {
+            throw new IllegalArgumentException("Tiles must be square and of the same size.");
+         }
+         tilePixels[i] = ImageUtil.getPixels(tiles[i]);
+      }
+   }
+
+
+   public static void main(String[] args) throws IOException, InterruptedException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("Usage: TextureWriter <folder> <texture> [numberOfTiles] [columns] [rows]");
+         return;
+      }
+
+      File folder = new File(args[0]);
+      File texture = new File(args[1]);
+      int numberOfTiles = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+      int columns = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+      int rows = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+      BufferedImage[] tiles = new BufferedImage[numberOfTiles];
+      for (int i = 0; i < numberOfTiles; i++)
+      {
+         tiles[i] = ImageIO.read(new File(folder, "tile" + i + ".png"));
+         if (tiles[i] == null)
+         {
+            throw new IOException("No tile" + i + ".png in " + folder + ".");
+         }
+      }
+
+      long startTime = System.nanoTime();
+      short[] map = new TileMapGenerator(numberOfTiles).generate(columns, rows, new Random().nextLong());
+      TextureWriter writer = new TextureWriter(tiles);
+      if (texture.getName().endsWith(".raw"))
+      {
+         writer.writeRaw(map, columns, rows, texture);
+      }
+      else
+      {
+         try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(texture)))
+         {
+            writer.writePng(map, columns, rows, outputStream);
+         }
+      }
+      System.out.println(String.format("%d x %d pixels written in %.1f ms", writer.getWidth(columns), writer.getHeight(rows),
+                                       (System.nanoTime() - startTime) / 1e6));
+   }
+
+
+   /**
+    * Sets the number of bands of a raw file composed at the same time.
+    */
+   public void setParallelism(int parallelism)
+   {
+      if (parallelism < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1.");
+      }
+      this.parallelism = parallelism;
+   }
+
+
+   public int getWidth(int columns)
+   {
+      return columns * tileResolution;
+   }
+
+
+   public int getHeight(int rows)
+   {
+      return rows * tileResolution;
+   }
+
+
+   /**
+    * Writes the texture as raw rgb. The stream is flushed, but not closed.
+    *
+    * @param map
+    *           The tile of each cell, row by row.
+    */
+   public void writeRaw(short[] map, int columns, int rows, OutputStream outputStream) throws IOException
+   {
+      checkSize(map, columns, rows);
+      byte[] line = new byte[3 * getWidth(columns)];
+      for (int y = 0; y < getHeight(rows); y++)
+      {
+         renderLine(map, columns, y, line, 0);
+         outputStream.write(line);
+      }
+      outputStream.flush();
+   }
+
+
+   /**
+    * Composes the texture as raw rgb into a file, which is replaced. The lines are split into bands, a row of tiles each
+    * or less, if that is more than {@link #MAX_BAND_SIZE} bytes. Each band is mapped into memory on its own, so the file
+    * may be larger than a single mapping, and filled by one of {@link #setParallelism} threads. When this returns, the
+    * file is complete and forced to the storage device.
+    *
+    * @param map
+    *           The tile of each cell, row by row.
+    * @throws InterruptedException
+    *            If the calling thread has been interrupted, the file is incomplete then.
+    */
+   public void writeRaw(final short[] map, final int columns, int rows, File file) throws IOException, InterruptedException
+   {
+      checkSize(map, columns, rows);
+      final long lineSize = 3L * getWidth(columns);
+      int height = getHeight(rows);
+      int linesPerBand = (int) Math.max(1, Math.min(tileResolution, MAX_BAND_SIZE / lineSize));
+      int bands = (height + linesPerBand - 1) / linesPerBand;
+
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+      {
+         randomAccessFile.setLength(0);
+         randomAccessFile.setLength(lineSize * height);
+         final FileChannel channel = randomAccessFile.getChannel();
+
+         ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, bands));
+         try
+         {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int startY = 0; startY < height; startY += linesPerBand)
+            {
+               final int bandStartY = startY;
+               final int bandEndY = Math.min(height, startY + linesPerBand);
+               futures.add(executorService.submit(new Callable<Void>()
+               {
+                  @Override
+                  public Void call() throws IOException
+                  {
+                     MappedByteBuffer band = channel.map(FileChannel.MapMode.READ_WRITE, bandStartY * lineSize, (bandEndY - bandStartY) * lineSize);
+                     byte[] line = new byte[(int) lineSize];
+                     for (int y = bandStartY; y < bandEndY; y++)
+                     {
+                        renderLine(map, columns, y, line, 0);
+                        band.put(line);
+                     }
+                     // Written back by the page cache until now, waits for the rest
+                     band.force();
+                     return null;
+                  }
+               }));
+            }
+            for (Future<Void> future : futures)
+            {
+               future.get();
+            }
+         }
+         catch (ExecutionException e)
+         {
+            if (e.getCause() instanceof IOException)
+            {
+               throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+         }
+         finally
+         {
+            executorService.shutdownNow();
+         }
+
+         // The file is complete: flush its size and dates as well
+         channel.force(true);
+      }
+   }
+
+
+   /**
+    * Writes the texture as png. Each line is filtered by its left neighbor and compressed with the fastest setting of
+    * deflate. The stream is flushed, but not closed.
+    *
+    * @param map
+    *           The tile of each cell, row by row.
+    */
+   public void writePng(short[] map, int columns, int rows, OutputStream outputStream) throws IOException
+   {
+      checkSize(map, columns, rows);
+      DataOutputStream pngStream = new DataOutputStream(outputStream);
+      pngStream.write(PNG_SIGNATURE);
+
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      DataOutputStream headerStream = new DataOutputStream(header);
+      headerStream.writeInt(getWidth(columns));
+      headerStream.writeInt(getHeight(rows));
+      // Bit depth, color type, compression, filter method and interlace
+      headerStream.writeByte(8);
+      headerStream.writeByte(PNG_COLOR_TYPE_RGB);
+      headerStream.writeByte(0);
+      headerStream.writeByte(0);
+      headerStream.writeByte(0);
+      writeChunk(pngStream, "IHDR", header.toByteArray(), header.size());
+
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try
+      {
+         ChunkOutputStream chunkStream = new ChunkOutputStream(pngStream);
+         DeflaterOutputStream compressedStream = new DeflaterOutputStream(chunkStream, deflater, PNG_CHUNK_SIZE);
+         byte[] line = new byte[1 + 3 * getWidth(columns)];
+         line[0] = PNG_FILTER_SUB;
+         for (int y = 0; y < getHeight(rows); y++)
+         {
+            renderLine(map, columns, y, line, 1);
+            // Backwards, so that the left neighbor is still unfiltered
+            for (int i = line.length - 1; i > 3; i--)
+            {
+               line[i] = (byte) (line[i] - line[i - 3]);
+            }
+            compressedStream.write(line);
+         }
+         compressedStream.finish();
+         chunkStream.flushChunk();
+      }
+      finally
+      {
+         deflater.end();
+      }
+
+      writeChunk(pngStream, "IEND", new byte[0], 0);
+      pngStream.flush();
+   }
+
+
+   private void checkSize(short[] map, int columns, int rows)
+   {
+      if (columns < 1 || rows < 1)
+      {
+         throw new IllegalArgumentException("Columns and rows must be at least 1.");
+      }
+      if ((long) columns * rows > map.length)
+      {
+         throw new IllegalArgumentException("Map must have " + columns + " x " + rows + " cells.");
+      }
+      // A png line holds a filter byte and 3 bytes per pixel
+      if (1 + 3L * columns * tileResolution > Integer.MAX_VALUE || (long) rows * tileResolution > Integer.MAX_VALUE)
+      {
+         throw new IllegalArgumentException("Texture must be at most " + (Integer.MAX_VALUE - 1) / 3 + " pixels wide and " + Integer.MAX_VALUE
+                                            + " pixels high.");
+      }
+   }
+
+
+   /**
+    * Writes the rgb values of line y of the texture into line, starting at offset.
+    */
+   private void renderLine(short[] map, int columns, int y, byte[] line, int offset)
+   {
+      int mapRow = y / tileResolution * columns;
+      int tileRow = y % tileResolution * tileResolution;
+      int i = offset;
+      for (int column = 0; column < columns; column++)
+      {
+         int[] pixels = tilePixels[map[mapRow + column]];
+         for (int x = tileRow; x < tileRow + tileResolution; x++)
+         {
+            int pixel = pixels[x];
+            line[i++] = (byte) (pixel >> 16);
+            line[i++] = (byte) (pixel >> 8);
+            line[i++] = (byte) pixel;
+         }
+      }
+   }
+
+
+   /**
+    * Writes a png chunk: length, type, data and the checksum of type and data.
+    */
+   private static void writeChunk(DataOutputStream pngStream, String type, byte[] data, int length) throws IOException
+   {
+      byte[] typeBytes = type.getBytes("US-ASCII");
+      CRC32 crc = new CRC32();
+      crc.update(typeBytes);
+      crc.update(data, 0, length);
+
+      pngStream.writeInt(length);
+      pngStream.write(typeBytes);
+      pngStream.write(data, 0, length);
+      pngStream.writeInt((int) crc.getValue());
+   }
+
+
+   /**
+    * Packs the compressed image data into IDAT chunks of {@link #PNG_CHUNK_SIZE} bytes.
+    */
+   private final static class ChunkOutputStream extends OutputStream
+   {
+      private final DataOutputStream pngStream;
+      private final byte[] chunk = new byte[PNG_CHUNK_SIZE];
+      private int length;
+
+
+      ChunkOutputStream(DataOutputStream pngStream)
+      {
+         this.pngStream = pngStream;
+      }
+
+
+      @Override
+      public void write(int b) throws IOException
+      {
+         write(new byte[] { (byte) b }, 0, 1);
+      }
+
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException
+      {
+         while (len > 0)
+         {
+            int count = Math.min(len, chunk.length - length);
+            System.arraycopy(b, off, chunk, length, count);
+            length += count;
+            off += count;
+            len -= count;
+            if (length == chunk.length)
+            {
+               flushChunk();
+            }
+         }
+      }
+
+
+      /**
+       * Writes the collected data as IDAT chunk, if there is any.
+       */
+      void flushChunk() throws IOException
+      {
+         if (length > 0)
+         {
+            writeChunk(pngStream, "IDAT", chunk, length);
+            length = 0;
+         }
+      }
+   }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Lays out a map of tiles of a set of {@link StrictWangTileGenerator#getEdgeTileIndices}, so that each tile matches the
+ * colors of its top and left neighbor. The tile of a cell is looked up in a table by the tile above it, a random choice
+ * and the tile to the left of it, which holds each candidate equally often.
+ * <p>
+ * The map is filled in blocks. A block only depends on the block above and to the left of it, so the blocks of each
+ * anti-diagonal are filled in parallel. The random numbers are derived from the seed and the block, so a seed always
+ * gives the same map, regardless of the parallelism.
+ * <p>
+ * Usage: TileMapGenerator [columns] [rows] [numberOfTiles]
+ *
+ * @author agent
+ */
+public final class TileMapGenerator
+{
+   // Width and height of a block in cells
+   private final static int BLOCK_SIZE = 256;
+
+   // Number of tiles
+   private final int numberOfTiles;
+   // Number of random choices per pair of neighbors, a multiple of each number of candidates
+   private final int choices;
+   // Per tile above (or numberOfTiles for none), random choice and tile to the left (or numberOfTiles for none): the tile.
+   // The tile to the left comes last, so that it is only added to the index: it is the one the next cell waits for.
+   private final short[] choiceTable;
+   // Number of blocks filled in parallel
+   private int parallelism = StrictWangTileGenerator.DEFAULT_PARALLELISM;
+
+
+   public TileMapGenerator(int numberOfTiles)
+   {
+      int[][] edgeImageIndices = StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles);
+      this.numberOfTiles = numberOfTiles;
+
+      int stride = numberOfTiles + 1;
+      List<List<Short>> candidates = new ArrayList<List<Short>>();
+      int leastCommonMultiple = 1;
+      for (int upperTile = 0; upperTile <= numberOfTiles; upperTile++)
+      {
+         for (int leftTile = 0; leftTile <= numberOfTiles; leftTile++)
+         {
+            List<Short> matchingTiles = new ArrayList<Short>();
+            for (int tile = 0; tile < numberOfTiles; tile++)
+            {
+               boolean matchesTop = upperTile == numberOfTiles
+               || edgeImageIndices[tile][ImageUtil.TOP_AREA_INDEX] == edgeImageIndices[upperTile][ImageUtil.BOTTOM_AREA_INDEX];
+               boolean matchesLeft = leftTile == numberOfTiles
+               || edgeImageIndices[tile][ImageUtil.LEFT_AREA_INDEX] == edgeImageIndices[leftTile][ImageUtil.RIGHT_AREA_INDEX];
+               if (matchesTop && matchesLeft)
+               {
+                  matchingTiles.add((short) tile);
+               }
+            }
+            if (matchingTiles.isEmpty())
+            {
+               throw new IllegalArgumentException("No tile matches tile " + upperTile + " above and tile " + leftTile + " to the left.");
+            }
+            candidates.add(matchingTiles);
+            leastCommonMultiple = leastCommonMultiple / gcd(leastCommonMultiple, matchingTiles.size()) * matchingTiles.size();
+         }
+      }
+
+      choices = leastCommonMultiple;
+      choiceTable = new short[stride * choices * stride];
+      for (int upperTile = 0; upperTile <= numberOfTiles; upperTile++)
+      {
+         for (int leftTile = 0; leftTile <= numberOfTiles; leftTile++)
+         {
+            List<Short> matchingTiles = candidates.get(upperTile * stride + leftTile);
+            for (int choice = 0; choice < choices; choice++)
+            {
+               choiceTable[(upperTile * choices + choice) * stride + leftTile] = matchingTiles.get(choice * matchingTiles.size() / choices);
+            }
+         }
+      }
+   }
+
+
+   private static int gcd(int a, int b)
+   {
+      return b == 0 ? a : gcd(b, a % b);
+   }
+
+
+   public static void main(String[] args)
+   {
+      int columns = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+      int rows = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+      int numberOfTiles = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+      TileMapGenerator generator = new TileMapGenerator(numberOfTiles);
+      // First runs warm up the compiler
+      for (int run = 0; run < 5; run++)
+      {
+         long startTime = System.nanoTime();
+         generator.generate(columns, rows, run);
+         System.out.println(String.format("%d x %d tiles mapped in %.1f ms", columns, rows, (System.nanoTime() - startTime) / 1e6));
+      }
+   }
+
+
+   /**
+    * Sets the number of blocks filled at the same time.
+    */
+   public void setParallelism(int parallelism)
+   {
+      if (parallelism < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1.");
+      }
+      this.parallelism = parallelism;
+   }
+
+
+   /**
+    * @return The tile of each cell, row by row.
+    */
+   public short[] generate(int columns, int rows, long seed)
+   {
+      if (columns < 1 || rows < 1)
+      {
+         throw new IllegalArgumentException("Columns and rows must be at least 1.");
+      }
+      if ((long) columns * rows > Integer.MAX_VALUE)
+      {
+         throw new IllegalArgumentException("Map must have at most " + Integer.MAX_VALUE + " cells.");
+      }
+
+      short[] map = new short[columns * rows];
+      int blockColumns = (columns + BLOCK_SIZE - 1) / BLOCK_SIZE;
+      int blockRows = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+      if (parallelism == 1 || blockColumns == 1 || blockRows == 1)
+      {
+         // No two blocks could be filled at the same time
+         for (int blockY = 0; blockY < blockRows; blockY++)
+         {
+            for (int blockX = 0; blockX < blockColumns; blockX++)
+            {
+               fillBlock(map, columns, rows, blockX, blockY, seed);
+            }
+         }
+      }
+      else
+      {
+         ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, Math.min(blockColumns, blockRows)));
+         try
+         {
+            pool.invoke(new Wavefront(map, columns, rows, blockColumns, blockRows, seed));
+         }
+         finally
+         {
+            pool.shutdownNow();
+         }
+      }
+      return map;
+   }
+
+
+   /**
+    * Fills the cells of a block row by row. The blocks above and to the left of it must be filled.
+    */
+   private void fillBlock(short[] map, int columns, int rows, int blockX, int blockY, long seed)
+   {
+      int startX = blockX * BLOCK_SIZE;
+      int endX = Math.min(columns, startX + BLOCK_SIZE);
+      int startY = blockY * BLOCK_SIZE;
+      int endY = Math.min(rows, startY + BLOCK_SIZE);
+      int stride = numberOfTiles + 1;
+      int choices = this.choices;
+      long random = mix(seed + ((long) blockY * columns + blockX) * 0x9E3779B97F4A7C15L);
+
+      for (int y = startY; y < endY; y++)
+      {
+         int row = y * columns;
+         int leftTile = startX == 0 ? numberOfTiles : map[row + startX - 1];
+         for (int x = startX; x < endX; x++)
+         {
+            int upperTile = y == 0 ? numberOfTiles : map[row - columns + x];
+
+            // xorshift, its upper 32 bits scaled to the number of choices
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            int choice = (int) ((random >>> 32) * choices >>> 32);
+            leftTile = choiceTable[(upperTile * choices + choice) * stride + leftTile];
+            map[row + x] = (short) leftTile;
+         }
+      }
+   }
+
+
+   /**
+    * @return A well distributed, non zero hash of the value, e.g. the state for the random numbers of a block.
+    */
+   static long mix(long value)
+   {
+      value = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+      value = (value ^ value >>> 27) * 0x94D049BB133111EBL;
+      value ^= value >>> 31;
+      return value == 0 ? 1 : value;
+   }
+
+
+   /**
+    * Fills the blocks anti-diagonal by anti-diagonal, the blocks of one anti-diagonal in parallel.
+    */
+   private final class Wavefront extends RecursiveAction
+   {
+      private final static long serialVersionUID = 1L;
+
+      private final short[] map;
+      private final int columns;
+      private final int rows;
+      private final int blockColumns;
+      private final int blockRows;
+      private final long seed;
+
+
+      Wavefront(short[] map, int columns, int rows, int blockColumns, int blockRows, long seed)
+      {
+         this.map = map;
+         this.columns = columns;
+         this.rows = rows;
+         this.blockColumns = blockColumns;
+         this.blockRows = blockRows;
+         this.seed = seed;
+      }
+
+
+      @Override
+      protected void compute()
+      {
+         List<RecursiveAction> blocks = new ArrayList<RecursiveAction>();
+         for (int diagonal = 0; diagonal < blockColumns + blockRows - 1; diagonal++)
+         {
+            blocks.clear();
+            for (int blockY = Math.max(0, diagonal - blockColumns + 1); blockY <= Math.min(diagonal, blockRows - 1); blockY++)
+            {
+               blocks.add(new Block(map, columns, rows, diagonal - blockY, blockY, seed));
+            }
+            invokeAll(blocks);
+         }
+      }
+   }
+
+
+   /**
+    * Fills one block of a {@link Wavefront}.
+    */
+   private final class Block extends RecursiveAction
+   {
+      private final static long serialVersionUID = 1L;
+
+      private final short[] map;
+      private final int columns;
+      private final int rows;
+      private final int blockX;
+      private final int blockY;
+      private final long seed;
+
+
+      Block(short[] map, int columns, int rows, int blockX, int blockY, long seed)
+      {
+         this.map = map;
+         this.columns = columns;
+         this.rows = rows;
+         this.blockX = blockX;
+         this.blockY = blockY;
+         this.seed = seed;
+      }
+
+
+      @Override
+      protected void compute()
+      {
+         fillBlock(map, columns, rows, blockX, blockY, seed);
+      }
+   }
+}
@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import edu.logic.graphs.BaseAreaGraph;
+import edu.logic.graphs.CostField;
+import edu.logic.graphs.PixelTopology;
+import edu.logic.graphs.Seam;
+import edu.logic.graphs.SeamEngine;
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Batch generation of a tile set without user interface. Each tile passes the {@link Stage}s of a pipeline, every stage
+ * has its own threads and hands the tiles to the next stage through a bounded queue. A slow stage, e.g. a slow disk,
+ * blocks the stages in front of it instead of letting finished tiles pile up in memory.
+ * The tiles are written with the names used by the user interface: tile0.png, tile1.png, tile2.png ...
+ * <p>
+ * Usage: TilePipeline &lt;image&gt; &lt;folder&gt; [numberOfTiles] [tileResolution]
+ *
+ * @author agent
+ */
+public final class TilePipeline
+{
+   /**
+    * The stages of the pipeline, in the order a tile passes them.
+    */
+   public enum Stage
+   {
+      /**
+       * Crops the sample tile from the input image.
+       */
+      SAMPLE,
+
+      /**
+       * Combines the edge images into the edge tile.
+       */
+      COMPOSE,
+
+      /**
+       * Finds the seams of the 4 areas.
+       */
+      SOLVE,
+
+      /**
+       * Merges edge and sample tile along the seams.
+       */
+      MERGE,
+
+      /**
+       * Encodes the tile as png.
+       */
+      ENCODE,
+
+      /**
+       * Writes the png into the output folder.
+       */
+      WRITE
+   }
+
+   /**
+    * Number of tiles a queue in front of a stage holds, if none is specified.
+    */
+   public final static int DEFAULT_QUEUE_CAPACITY = 2;
+
+   private final static String TILEFORMAT = "png";
+
+   // Marks the end of the tiles in a queue
+   private final static TileJob END = new TileJob(-1);
+
+   private final BufferedImage inputImage;
+   // Number of tiles
+   private final int numberOfTiles;
+   // Width and height of the to be generated tiles
+   private final int tileResolution;
+   private final SeamEngine seamEngine;
+   // One graph for each side (top, right, bottom, left), shared by all threads
+   private final List<? extends BaseAreaGraph> graphs;
+
+   // Threads per stage
+   private final int[] parallelism;
+   // Number of tiles each queue holds
+   private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+   // Admits the run, if several jobs share the heap
+   private AdmissionScheduler scheduler;
+   private int priority;
+
+   // Moved edge images and the colors of the areas of each tile, read by all threads
+   private List<int[]> edgePixels;
+   private int[][] edgeImageIndices;
+   // Folder the tiles are written to
+   private File folder;
+
+   // First error of any stage, the remaining tiles are dropped
+   private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+
+   public TilePipeline(BufferedImage inputImage, int numberOfTiles, int tileResolution)
+   {
+      this(inputImage, numberOfTiles, tileResolution, BaseAreaGraph.DEFAULT_SEAM_ENGINE);
+   }
+
+
+   public TilePipeline(BufferedImage inputImage, int numberOfTiles, int tileResolution, SeamEngine seamEngine)
+   {
+      // Convert once, all stages read from it
+      this.inputImage = ImageUtil.toIntArgb(inputImage);
+      this.numberOfTiles = numberOfTiles;
+      this.tileResolution = tileResolution;
+      this.seamEngine = seamEngine;
+
+      graphs = StrictWangTileGenerator.createGraphs(tileResolution, seamEngine);
+
+      // Finding the seams is by far the most expensive stage
+      parallelism = new int[Stage.values().length];
+      Arrays.fill(parallelism, 1);
+      parallelism[Stage.SOLVE.ordinal()] = StrictWangTileGenerator.DEFAULT_PARALLELISM;
+   }
+
+
+   public static void main(String[] args) throws IOException, InterruptedException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("Usage: TilePipeline <image> <folder> [numberOfTiles] [tileResolution]");
+         return;
+      }
+
+      BufferedImage inputImage = ImageIO.read(new File(args[0]));
+      int numberOfTiles = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+      int tileResolution = args.length > 3 ? Integer.parseInt(args[3]) : 128;
+
+      long startTime = System.nanoTime();
+      new TilePipeline(inputImage, numberOfTiles, tileResolution).run(new File(args[1]));
+      System.out.println(String.format("%d tiles written in %.1f ms", numberOfTiles, (System.nanoTime() - startTime) / 1e6));
+   }
+
+
+   /**
+    * Sets the number of threads of a stage.
+    */
+   public void setParallelism(Stage stage, int threads)
+   {
+      if (threads < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1.");
+      }
+      parallelism[stage.ordinal()] = threads;
+   }
+
+
+   /**
+    * Sets the number of tiles, that may wait in front of each stage.
+    */
+   public void setQueueCapacity(int queueCapacity)
+   {
+      if (queueCapacity < 1)
+      {
+         throw new IllegalArgumentException("Queue capacity must be at least 1.");
+      }
+      this.queueCapacity = queueCapacity;
+   }
+
+
+   /**
+    * Lets each run wait, until the scheduler admits it, e.g. to run several pipelines in one JVM.
+    *
+    * @param priority
+    *           Waiting jobs with a higher priority start first.
+    */
+   public void setScheduler(AdmissionScheduler scheduler, int priority)
+   {
+      this.scheduler = scheduler;
+      this.priority = priority;
+   }
+
+
+   /**
+    * Generates all tiles and writes them into folder. Returns after the last tile has been written.
+    * Waits for admission first, if there is a scheduler.
+    *
+    * @throws IOException
+    *            If any stage failed, the remaining tiles are not written then.
+    */
+   public void run(File folder) throws IOException, InterruptedException
+   {
+      if (scheduler == null)
+      {
+         runStages(folder);
+         return;
+      }
+
+      // Each thread and each queue slot may hold a tile. The solve threads end with the run, so does their scratch memory.
+      int tilesInProgress = 0;
+      for (int threads : parallelism)
+      {
+         tilesInProgress += threads + queueCapacity;
+      }
+      long footprint = AdmissionScheduler.estimateFootprint(numberOfTiles, tileResolution, seamEngine, tilesInProgress, 0)
+         + AdmissionScheduler.estimateThreadScratch(tileResolution, seamEngine, parallelism[Stage.SOLVE.ordinal()]);
+      AdmissionScheduler.Ticket ticket = scheduler.admit(footprint, priority);
+      try
+      {
+         runStages(folder);
+      }
+      finally
+      {
+         ticket.close();
+      }
+   }
+
+
+   private void runStages(File folder) throws IOException, InterruptedException
+   {
+      this.folder = folder;
+      failure.set(null);
+
+      // Shared by all tiles
+      edgeImageIndices = StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles);
+      edgePixels = StrictWangTileGenerator.shiftEdgeImages(ImageUtil.generateSamples(inputImage, tileResolution,
+         StrictWangTileGenerator.NUMBER_OF_EDGES));
+
+      // The queue in front of each stage
+      Stage[] stages = Stage.values();
+      List<BlockingQueue<TileJob>> queues = new ArrayList<BlockingQueue<TileJob>>();
+      for (int i = 0; i < stages.length; i++)
+      {
+         queues.add(new ArrayBlockingQueue<TileJob>(queueCapacity));
+      }
+
+      List<Thread> threads = new ArrayList<Thread>();
+      for (int i = 0; i < stages.length; i++)
+      {
+         BlockingQueue<TileJob> output = i + 1 < stages.length ? queues.get(i + 1) : null;
+         AtomicInteger runningWorkers = new AtomicInteger(parallelism[i]);
+         for (int j = 0; j < parallelism[i]; j++)
+         {
+            Thread thread = new Thread(new StageWorker(stages[i], queues.get(i), output, runningWorkers), "TilePipeline-" + stages[i] + "-" + j);
+            thread.start();
+            threads.add(thread);
+         }
+      }
+
+      try
+      {
+         // Blocks, while the first stage is busy
+         for (int i = 0; i < numberOfTiles && failure.get() == null; i++)
+         {
+            queues.get(0).put(new TileJob(i));
+         }
+         queues.get(0).put(END);
+         for (Thread thread : threads)
+         {
+            thread.join();
+         }
+      }
+      catch (InterruptedException e)
+      {
+         for (Thread thread : threads)
+         {
+            thread.interrupt();
+         }
+         throw e;
+      }
+
+      Exception exception = failure.get();
+      if (exception instanceof IOException)
+      {
+         throw (IOException) exception;
+      }
+      else if (exception != null)
+      {
+         throw new IOException(exception);
+      }
+   }
+
+
+   /**
+    * Does the work of one stage for one tile.
+    */
+   private void process(Stage stage, TileJob job) throws IOException
+   {
+      switch (stage)
+      {
+         case SAMPLE:
+            job.sampleTile = ImageUtil.generateSamples(inputImage, tileResolution, 1).get(0);
+            break;
+
+         case COMPOSE:
+            job.edgeTile = StrictWangTileGenerator.composeEdgeTile(edgePixels, edgeImageIndices[job.index], tileResolution);
+            break;
+
+         case SOLVE:
+            CostField costField = new CostField(PixelTopology.forResolution(tileResolution), job.edgeTile, job.sampleTile);
+            job.seams = new Seam[graphs.size()];
+            for (int i = 0; i < graphs.size(); i++)
+            {
+               job.seams[i] = graphs.get(i).solve(costField);
+            }
+            break;
+
+         case MERGE:
+            int[] edgeTilePixels = ImageUtil.getPixels(job.edgeTile);
+            int[] samplePixels = ImageUtil.getPixels(job.sampleTile);
+            int[] newPixels = new int[tileResolution * tileResolution];
+            for (int i = 0; i < graphs.size(); i++)
+            {
+               graphs.get(i).merge(newPixels, job.seams[i], edgeTilePixels, samplePixels);
+            }
+            job.tile = ImageUtil.createImage(newPixels, tileResolution, tileResolution);
+            job.edgeTile = null;
+            job.sampleTile = null;
+            job.seams = null;
+            break;
+
+         case ENCODE:
+            ByteArrayOutputStream encodedTile = new ByteArrayOutputStream();
+            if (!ImageIO.write(job.tile, TILEFORMAT, encodedTile))
+            {
+               throw new IOException("No writer for " + TILEFORMAT + " images.");
+            }
+            job.encodedTile = encodedTile.toByteArray();
+            job.tile = null;
+            break;
+
+         case WRITE:
+            try (OutputStream outputStream = new FileOutputStream(new File(folder, "tile" + job.index + "." + TILEFORMAT)))
+            {
+               outputStream.write(job.encodedTile);
+            }
+            job.encodedTile = null;
+            break;
+      }
+   }
+
+
+   /**
+    * One thread of a stage. Takes tiles from the queue in front of its stage until the end mark and puts them into the
+    * queue of the next stage. The last worker of a stage passes the end mark on.
+    */
+   private final class StageWorker implements Runnable
+   {
+      private final Stage stage;
+      private final BlockingQueue<TileJob> input;
+      // Null for the last stage
+      private final BlockingQueue<TileJob> output;
+      // Workers of the stage, that did not see the end mark yet
+      private final AtomicInteger runningWorkers;
+
+
+      StageWorker(Stage stage, BlockingQueue<TileJob> input, BlockingQueue<TileJob> output, AtomicInteger runningWorkers)
+      {
+         this.stage = stage;
+         this.input = input;
+         this.output = output;
+         this.runningWorkers = runningWorkers;
+      }
+
+
+      @Override
+      public void run()
+      {
+         try
+         {
+            while (true)
+            {
+               TileJob job = input.take();
+               if (job == END)
+               {
+                  // Leave the mark for the other workers of this stage
+                  input.put(END);
+                  break;
+               }
+
+               if (failure.get() == null)
+               {
+                  try
+                  {
+                     process(stage, job);
+                  }
+                  catch (Exception e)
+                  {
+                     failure.compareAndSet(null, e);
+                  }
+               }
+               // After a failure the tiles are only drained, so that no stage blocks forever
+               if (output != null && failure.get() == null)
+               {
+                  output.put(job);
+               }
+            }
+
+            if (runningWorkers.decrementAndGet() == 0 && output != null)
+            {
+               output.put(END);
+            }
+         }
+         catch (InterruptedException e)
+         {
+            failure.compareAndSet(null, e);
+         }
+      }
+   }
+
+
+   /**
+    * Intermediate results of one tile, owned by one stage at a time.
+    */
+   private final static class TileJob
+   {
+      // Index of the tile within the set
+      private final int index;
+
+      private BufferedImage sampleTile;
+      private BufferedImage edgeTile;
+      private Seam[] seams;
+      private BufferedImage tile;
+      private byte[] encodedTile;
+
+
+      TileJob(int index)
+      {
+         this.index = index;
+      }
+   }
+}
@@ -0,0 +1,633 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.logic.graphs.BaseAreaGraph;
+import edu.logic.graphs.SeamEngine;
+
+
+/**
+ * Headless tile generation over HTTP, bound to the loopback interface.
+ * <p>
+ * POST /tiles with an image as body generates a tile set. Query parameters: numberOfTiles (4, 8, 16; default 8),
+ * tileResolution (16, 32 ... 512 like the user interface; default 128), seamEngine (default
+ * {@link BaseAreaGraph#DEFAULT_SEAM_ENGINE}) and output:
+ * <ul>
+ * <li>tiles: a zip of tile0.png, tile1.png ... (default)</li>
+ * <li>atlas: all tiles packed into one png, as saved by the user interface</li>
+ * <li>texture: a png of columns x rows (default 4 x 6) randomly placed, matching tiles</li>
+ * </ul>
+ * Optional parameter priority (default 0): requests, that wait for heap (see {@link AdmissionScheduler}), start in the
+ * order of their priority. The body may have up to {@link #MAX_BODY_BYTES} bytes and the image up to
+ * {@link #MAX_IMAGE_PIXELS} pixels. Only its header is read before the request is admitted. A texture may have up to
+ * {@link #MAX_TEXTURE_PIXELS} pixels. The output is streamed, while the request is admitted.
+ * GET /metrics returns request counts, latencies, the depth of the solver queue and the heap admission as plain text.
+ * <p>
+ * Every request is handled on a thread of its own, a virtual thread where the runtime has them. The seams of all
+ * requests are solved on one shared pool of {@link StrictWangTileGenerator#DEFAULT_PARALLELISM} threads, so concurrent
+ * requests queue up there instead of overloading the processors.
+ * <p>
+ * Usage: TileServer [port]
+ *
+ * @author agent
+ */
+public final class TileServer
+{
+   /**
+    * Port used, if none is specified.
+    */
+   public final static int DEFAULT_PORT = 8080;
+
+   private final static String TILEFORMAT = "png";
+
+   /**
+    * Largest accepted request body.
+    */
+   public final static int MAX_BODY_BYTES = 64 * 1024 * 1024;
+
+   /**
+    * Largest accepted image in pixels, 4096 x 4096.
+    */
+   public final static long MAX_IMAGE_PIXELS = 4096L * 4096;
+
+   /**
+    * Largest texture in pixels, 16384 x 16384.
+    */
+   public final static long MAX_TEXTURE_PIXELS = 16384L * 16384;
+
+   // Largest tile resolution, the resolutions are the powers of two from 16 on like in the user interface
+   private final static int MAX_TILE_RESOLUTION = 512;
+
+   // Size of the sample texture in tiles, if none is requested
+   private final static int TEXTURE_COLUMNS = 4;
+   private final static int TEXTURE_ROWS = 6;
+
+   // Upper bounds of the latency histogram in milliseconds, the last bucket takes the rest
+   private final static long[] LATENCY_BOUNDS = new long[] { 100, 250, 500, 1000, 2500, 5000, 10000, 30000 };
+
+   /**
+    * What a POST /tiles returns.
+    */
+   private enum Output
+   {
+      TILES, ATLAS, TEXTURE
+   }
+
+   private final HttpServer server;
+   // Handles the requests, one thread each
+   private final ExecutorService requestExecutor;
+   // Solves the seams of all requests
+   private final ForkJoinPool solverPool;
+   // Starts only as many requests, as fit into the heap
+   private final AdmissionScheduler scheduler;
+
+   // Metrics of /tiles
+   private final AtomicLong requests = new AtomicLong();
+   private final AtomicLong failedRequests = new AtomicLong();
+   private final AtomicInteger requestsInProgress = new AtomicInteger();
+   private final AtomicLong latencySum = new AtomicLong();
+   private final AtomicLong latencyMax = new AtomicLong();
+   private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BOUNDS.length + 1);
+   // Estimated and observed peak heap of the finished requests
+   private final AtomicLong estimatedFootprints = new AtomicLong();
+   private final AtomicLong observedPeaks = new AtomicLong();
+
+
+   /**
+    * Creates the server without starting it. Admits requests within three quarters of the maximum heap.
+    *
+    * @param address
+    *           Port 0 picks a free port, see {@link #getPort}.
+    * @param parallelism
+    *           Number of threads solving seams.
+    */
+   public TileServer(InetSocketAddress address, int parallelism) throws IOException
+   {
+      this(address, parallelism, AdmissionScheduler.forMaxMemory());
+   }
+
+
+   /**
+    * Creates the server without starting it.
+    *
+    * @param scheduler
+    *           Decides, how many requests are generated at once. May be shared with other users of the heap.
+    */
+   public TileServer(InetSocketAddress address, int parallelism, AdmissionScheduler scheduler) throws IOException
+   {
+      if (parallelism < 1)
+      {
+         throw new IllegalArgumentException("Parallelism must be at least 1.");
+      }
+      solverPool = new ForkJoinPool(parallelism);
+      this.scheduler = scheduler;
+      requestExecutor = createRequestExecutor();
+
+      server = HttpServer.create(address, 0);
+      server.createContext("/tiles", new HttpHandler()
+      {
+         @Override
+         public void handle(HttpExchange exchange) throws IOException
+         {
+            handleTiles(exchange);
+         }
+      });
+      server.createContext("/metrics", new HttpHandler()
+      {
+         @Override
+         public void handle(HttpExchange exchange) throws IOException
+         {
+            handleMetrics(exchange);
+         }
+      });
+      server.setExecutor(requestExecutor);
+   }
+
+
+   public static void main(String[] args) throws IOException
+   {
+      int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+      TileServer tileServer = new TileServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+         StrictWangTileGenerator.DEFAULT_PARALLELISM);
+      tileServer.start();
+      System.out.println("Listening on http://localhost:" + tileServer.getPort() + "/");
+   }
+
+
+   /**
+    * A virtual thread per request, if the runtime provides them (Java 21), otherwise a cached pool of platform threads.
+    * The request threads mostly wait for the solver pool, so either way their number is not limited.
+    */
+   private static ExecutorService createRequestExecutor()
+   {
+      try
+      {
+         return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (ReflectiveOperationException e)
+      {
+         return Executors.newCachedThreadPool();
+      }
+   }
+
+
+   public void start()
+   {
+      server.start();
+   }
+
+
+   /**
+    * Stops accepting requests, cancels the requests in progress and stops the sampler of the scheduler.
+    */
+   public void stop()
+   {
+      server.stop(0);
+      requestExecutor.shutdownNow();
+      solverPool.shutdownNow();
+      scheduler.close();
+   }
+
+
+   /**
+    * @return The port the server listens on.
+    */
+   public int getPort()
+   {
+      return server.getAddress().getPort();
+   }
+
+
+   /**
+    * POST /tiles: generates the tile set of the image in the request body.
+    */
+   private void handleTiles(HttpExchange exchange) throws IOException
+   {
+      if (!"POST".equals(exchange.getRequestMethod()))
+      {
+         sendText(exchange, 405, "Use POST with an image as body.");
+         return;
+      }
+
+      long startTime = System.nanoTime();
+      requests.incrementAndGet();
+      requestsInProgress.incrementAndGet();
+      boolean failed = true;
+      try
+      {
+         Map<String, String> parameters = getParameters(exchange);
+         int numberOfTiles = getInt(parameters, "numberOfTiles", 8);
+         int tileResolution = getInt(parameters, "tileResolution", 128);
+         SeamEngine seamEngine = parameters.containsKey("seamEngine") ? SeamEngine.valueOf(parameters.get("seamEngine").toUpperCase(Locale.ENGLISH))
+            : BaseAreaGraph.DEFAULT_SEAM_ENGINE;
+         Output output = parameters.containsKey("output") ? Output.valueOf(parameters.get("output").toUpperCase(Locale.ENGLISH)) : Output.TILES;
+
+         byte[] encodedImage = readBody(exchange.getRequestBody());
+         if (encodedImage == null)
+         {
+            sendText(exchange, 413, "Body must have at most " + MAX_BODY_BYTES + " bytes.");
+            return;
+         }
+         if (tileResolution < 16 || tileResolution > MAX_TILE_RESOLUTION || (tileResolution & tileResolution - 1) != 0)
+         {
+            throw new IllegalArgumentException("Tile resolution must be a power of two from 16 to " + MAX_TILE_RESOLUTION + ".");
+         }
+
+         int columns = getInt(parameters, "columns", TEXTURE_COLUMNS);
+         int rows = getInt(parameters, "rows", TEXTURE_ROWS);
+         if (columns < 1 || rows < 1)
+         {
+            throw new IllegalArgumentException("Columns and rows must be at least 1.");
+         }
+         if ((long) columns * rows > MAX_TEXTURE_PIXELS / tileResolution / tileResolution)
+         {
+            throw new IllegalArgumentException("Texture must have at most " + MAX_TEXTURE_PIXELS + " pixels.");
+         }
+         // Fails for unsupported numbers of tiles before waiting for admission
+         StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles);
+
+         ImageReader reader = createReader(encodedImage);
+         try
+         {
+            // The size is known from the header, the pixels are only decoded once the job is admitted
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if ((long) width * height > MAX_IMAGE_PIXELS)
+            {
+               throw new IllegalArgumentException("Image must have at most " + MAX_IMAGE_PIXELS + " pixels.");
+            }
+            if (tileResolution > Math.min(width, height))
+            {
+               throw new IllegalArgumentException("Tile resolution must fit into the image.");
+            }
+
+            // Waits, until the heap has room for the job and the scratch memory of the solver threads
+            long footprint = AdmissionScheduler.estimateFootprint(numberOfTiles, tileResolution, seamEngine, solverPool.getParallelism(),
+               (long) width * height);
+            if (output == Output.TEXTURE)
+            {
+               footprint += AdmissionScheduler.estimateTextureFootprint(numberOfTiles, tileResolution, columns, rows);
+            }
+            long threadScratch = AdmissionScheduler.estimateThreadScratch(tileResolution, seamEngine, solverPool.getParallelism());
+            AdmissionScheduler.Ticket ticket = scheduler.admit(footprint, seamEngine, threadScratch, getInt(parameters, "priority", 0));
+            try
+            {
+               BufferedImage[] tiles = generateTiles(reader.read(0), numberOfTiles, tileResolution, seamEngine);
+
+               // Streamed as it is encoded, so that not even a large texture is held in memory as a whole
+               exchange.getResponseHeaders().set("Content-Type", output == Output.TILES ? "application/zip" : "image/" + TILEFORMAT);
+               exchange.sendResponseHeaders(200, 0);
+               try (OutputStream outputStream = exchange.getResponseBody())
+               {
+                  switch (output)
+                  {
+                     case ATLAS:
+                        write(packTiles(tiles), outputStream);
+                        break;
+
+                     case TEXTURE:
+                        writeSampleTexture(tiles, numberOfTiles, columns, rows, outputStream);
+                        break;
+
+                     default:
+                        zipTiles(tiles, outputStream);
+                        break;
+                  }
+               }
+            }
+            finally
+            {
+               ticket.close();
+               estimatedFootprints.addAndGet(ticket.getEstimatedFootprint());
+               observedPeaks.addAndGet(ticket.getObservedPeak());
+            }
+         }
+         finally
+         {
+            reader.dispose();
+         }
+         failed = false;
+      }
+      catch (IllegalArgumentException e)
+      {
+         sendText(exchange, 400, e.getMessage());
+      }
+      catch (ExecutionException | RuntimeException e)
+      {
+         sendText(exchange, 500, String.valueOf(e instanceof ExecutionException ? e.getCause() : e));
+      }
+      catch (InterruptedException e)
+      {
+         // The server is stopping
+         Thread.currentThread().interrupt();
+         sendText(exchange, 503, "Server stopped.");
+      }
+      finally
+      {
+         requestsInProgress.decrementAndGet();
+         if (failed)
+         {
+            failedRequests.incrementAndGet();
+         }
+         recordLatency((System.nanoTime() - startTime) / 1000000);
+         exchange.close();
+      }
+   }
+
+
+   /**
+    * @return The body, or null if it has more than {@link #MAX_BODY_BYTES} bytes.
+    */
+   private static byte[] readBody(InputStream body) throws IOException
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = body.read(buffer)) >= 0)
+      {
+         if (bytes.size() + read > MAX_BODY_BYTES)
+         {
+            return null;
+         }
+         bytes.write(buffer, 0, read);
+      }
+      return bytes.toByteArray();
+   }
+
+
+   /**
+    * @return A reader of the encoded image, that has not decoded any pixels yet.
+    */
+   private static ImageReader createReader(byte[] encodedImage) throws IOException
+   {
+      ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(encodedImage));
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext())
+      {
+         throw new IllegalArgumentException("Body is no readable image.");
+      }
+      ImageReader reader = readers.next();
+      reader.setInput(input, true, true);
+      return reader;
+   }
+
+
+   /**
+    * Generates all tiles on the shared solver pool.
+    *
+    * @return The tiles in the order of their iteration.
+    */
+   private BufferedImage[] generateTiles(BufferedImage inputImage, int numberOfTiles, int tileResolution, SeamEngine seamEngine)
+      throws InterruptedException, ExecutionException
+   {
+      final BufferedImage[] tiles = new BufferedImage[numberOfTiles];
+      StrictWangTileGenerator generator = new StrictWangTileGenerator(inputImage, numberOfTiles, tileResolution, seamEngine);
+      generator.generate(new StrictWangTileGenerator.TileListener()
+      {
+         @Override
+         public void tileGenerated(BufferedImage tile, int iteration)
+         {
+            tiles[iteration] = tile;
+         }
+      }, solverPool);
+      return tiles;
+   }
+
+
+   /**
+    * GET /metrics: one "name value" pair per line.
+    */
+   private void handleMetrics(HttpExchange exchange) throws IOException
+   {
+      StringBuilder metrics = new StringBuilder();
+      metrics.append("tileserver_requests_total ").append(requests.get()).append('\n');
+      metrics.append("tileserver_requests_failed_total ").append(failedRequests.get()).append('\n');
+      metrics.append("tileserver_requests_in_progress ").append(requestsInProgress.get()).append('\n');
+
+      long count = 0;
+      for (int i = 0; i < latencyBuckets.length(); i++)
+      {
+         count += latencyBuckets.get(i);
+         String bound = i < LATENCY_BOUNDS.length ? String.valueOf(LATENCY_BOUNDS[i]) : "+Inf";
+         metrics.append("tileserver_request_latency_ms_bucket{le=\"").append(bound).append("\"} ").append(count).append('\n');
+      }
+      metrics.append("tileserver_request_latency_ms_count ").append(count).append('\n');
+      metrics.append("tileserver_request_latency_ms_sum ").append(latencySum.get()).append('\n');
+      metrics.append("tileserver_request_latency_ms_max ").append(latencyMax.get()).append('\n');
+
+      // Tiles waiting for a solver thread
+      metrics.append("tileserver_solver_queue_depth ").append(solverPool.getQueuedSubmissionCount() + solverPool.getQueuedTaskCount()).append('\n');
+      metrics.append("tileserver_solver_active_threads ").append(solverPool.getActiveThreadCount()).append('\n');
+      metrics.append("tileserver_solver_parallelism ").append(solverPool.getParallelism()).append('\n');
+
+      // Admission by estimated heap footprint
+      metrics.append("tileserver_memory_budget_bytes ").append(scheduler.getBudget()).append('\n');
+      metrics.append("tileserver_memory_admitted_bytes ").append(scheduler.getAdmittedFootprint()).append('\n');
+      metrics.append("tileserver_jobs_running ").append(scheduler.getRunningJobs()).append('\n');
+      metrics.append("tileserver_jobs_waiting ").append(scheduler.getWaitingJobs()).append('\n');
+      metrics.append("tileserver_job_estimated_bytes_sum ").append(estimatedFootprints.get()).append('\n');
+      metrics.append("tileserver_job_observed_peak_bytes_sum ").append(observedPeaks.get()).append('\n');
+
+      try
+      {
+         sendText(exchange, 200, metrics.toString());
+      }
+      finally
+      {
+         exchange.close();
+      }
+   }
+
+
+   private void recordLatency(long latency)
+   {
+      int bucket = 0;
+      while (bucket < LATENCY_BOUNDS.length && latency > LATENCY_BOUNDS[bucket])
+      {
+         bucket++;
+      }
+      latencyBuckets.incrementAndGet(bucket);
+      latencySum.addAndGet(latency);
+
+      long max = latencyMax.get();
+      while (latency > max && !latencyMax.compareAndSet(max, latency))
+      {
+         max = latencyMax.get();
+      }
+   }
+
+
+   /**
+    * Writes the tiles as tile0.png, tile1.png ... within a zip archive. The stream is not closed.
+    */
+   private static void zipTiles(BufferedImage[] tiles, OutputStream outputStream) throws IOException
+   {
+      ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+      for (int i = 0; i < tiles.length; i++)
+      {
+         zipOutputStream.putNextEntry(new ZipEntry("tile" + i + "." + TILEFORMAT));
+         write(tiles[i], zipOutputStream);
+         zipOutputStream.closeEntry();
+      }
+      zipOutputStream.finish();
+   }
+
+
+   /**
+    * Packs the tiles into one image like the user interface: 2 x 2 tiles for 4 tiles, 4 x 2 for 8 and 4 x 4 for 16.
+    */
+   private static BufferedImage packTiles(BufferedImage[] tiles)
+   {
+      int columns = tiles.length == 4 ? 2 : 4;
+      int rows = tiles.length / columns;
+      int tileResolution = tiles[0].getWidth();
+
+      BufferedImage packedImage = new BufferedImage(tileResolution * columns, tileResolution * rows, BufferedImage.TYPE_INT_ARGB);
+      Graphics graphics = packedImage.createGraphics();
+      for (int i = 0; i < tiles.length; i++)
+      {
+         graphics.drawImage(tiles[i], tileResolution * (i % columns), tileResolution * (i / columns), null);
+      }
+      graphics.dispose();
+      return packedImage;
+   }
+
+
+   /**
+    * Places randomly chosen tiles, so that each tile matches the colors of its top and left neighbor, and writes the
+    * texture as png. The stream is not closed.
+    */
+   private static void writeSampleTexture(BufferedImage[] tiles, int numberOfTiles, int columns, int rows, OutputStream outputStream)
+      throws IOException
+   {
+      TileMapGenerator mapGenerator = new TileMapGenerator(numberOfTiles);
+      // Requests are served in parallel already
+      mapGenerator.setParallelism(1);
+      short[] indices = mapGenerator.generate(columns, rows, new Random().nextLong());
+
+      // Rendered line by line, only the map and one line are held in memory
+      new TextureWriter(tiles).writePng(indices, columns, rows, outputStream);
+   }
+
+
+   private static void write(BufferedImage image, OutputStream outputStream) throws IOException
+   {
+      if (!ImageIO.write(image, TILEFORMAT, outputStream))
+      {
+         throw new IOException("No writer for " + TILEFORMAT + " images.");
+      }
+   }
+
+
+   /**
+    * @return The decoded query parameters of the request.
+    */
+   private static Map<String, String> getParameters(HttpExchange exchange) throws UnsupportedEncodingException
+   {
+      Map<String, String> parameters = new HashMap<String, String>();
+      String query = exchange.getRequestURI().getRawQuery();
+      if (query == null)
+      {
+         return parameters;
+      }
+      for (String pair : query.split("&"))
+      {
+         int separator = pair.indexOf('=');
+         if (separator > 0)
+         {
+            parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"), URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+         }
+      }
+      return parameters;
+   }
+
+
+   /**
+    * @throws IllegalArgumentException
+    *            If the parameter is no number.
+    */
+   private static int getInt(Map<String, String> parameters, String name, int defaultValue)
+   {
+      String value = parameters.get(name);
+      if (value == null)
+      {
+         return defaultValue;
+      }
+      try
+      {
+         return Integer.parseInt(value);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new IllegalArgumentException(name + " must be a number.");
+      }
+   }
+
+
+   /**
+    * Does nothing, if the response has been started already, e.g. by a failure while streaming the output. The client
+    * gets an incomplete body then.
+    */
+   private static void sendText(HttpExchange exchange, int status, String text) throws IOException
+   {
+      if (exchange.getResponseCode() != -1)
+      {
+         return;
+      }
+      send(exchange, status, "text/plain; charset=UTF-8", String.valueOf(text).getBytes("UTF-8"));
+   }
+
+
+   private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException
+   {
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream outputStream = exchange.getResponseBody())
+      {
+         outputStream.write(body);
+      }
+   }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+import edu.logic.graphs.BaseAreaGraph;
+import edu.logic.graphs.SeamEngine;
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Worker process of {@link DistributedTileGenerator}. Connects to the coordinator on the loopback interface and merges
+ * the tiles it receives, one at a time, until the coordinator closes the connection.
+ * <p>
+ * Each message starts with a tag. A job ({@link #JOB}) holds tile resolution, seam engine, seam band, edge tile and
+ * sample tile, the answer is the merged tile ({@link #RESULT}) or the message of the error ({@link #FAILURE}). Tiles are
+ * sent as 3 bytes of rgb per pixel in row major order, the alpha channel is always opaque.
+ * <p>
+ * Usage: TileWorker &lt;port&gt;
+ *
+ * @author agent
+ */
+public final class TileWorker
+{
+   // Message tags
+   final static int JOB = 1;
+   final static int RESULT = 2;
+   final static int FAILURE = 3;
+
+   private final DataInputStream input;
+   private final DataOutputStream output;
+
+   // Graphs of the last job, reused as long as resolution and engine stay the same
+   private List<? extends BaseAreaGraph> graphs;
+   private int graphResolution;
+   private SeamEngine graphEngine;
+
+
+   private TileWorker(Socket socket) throws IOException
+   {
+      input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+   }
+
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 1)
+      {
+         System.out.println("Usage: TileWorker <port>");
+         return;
+      }
+
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0])))
+      {
+         new TileWorker(socket).run();
+      }
+   }
+
+
+   /**
+    * Answers jobs until the coordinator closes the connection.
+    */
+   private void run() throws IOException
+   {
+      while (true)
+      {
+         int tag;
+         try
+         {
+            tag = input.readInt();
+         }
+         catch (EOFException e)
+         {
+            // Coordinator is done
+            return;
+         }
+         if (tag != JOB)
+         {
+            throw new IOException("Unexpected message " + tag + ".");
+         }
+
+         int tileResolution = input.readInt();
+         String seamEngine = input.readUTF();
+         int seamBand = input.readInt();
+         int[] edgePixels = readPixels(input, tileResolution * tileResolution);
+         int[] samplePixels = readPixels(input, tileResolution * tileResolution);
+
+         int[] newPixels;
+         try
+         {
+            newPixels = mergeTile(tileResolution, SeamEngine.valueOf(seamEngine), seamBand, edgePixels, samplePixels);
+         }
+         catch (RuntimeException e)
+         {
+            output.writeInt(FAILURE);
+            output.writeUTF(String.valueOf(e));
+            output.flush();
+            continue;
+         }
+         output.writeInt(RESULT);
+         writePixels(output, newPixels);
+         output.flush();
+      }
+   }
+
+
+   private int[] mergeTile(int tileResolution, SeamEngine seamEngine, int seamBand, int[] edgePixels, int[] samplePixels)
+   {
+      if (graphs == null || graphResolution != tileResolution || graphEngine != seamEngine)
+      {
+         graphs = StrictWangTileGenerator.createGraphs(tileResolution, seamEngine);
+         graphResolution = tileResolution;
+         graphEngine = seamEngine;
+      }
+      for (BaseAreaGraph areaGraph : graphs)
+      {
+         areaGraph.setSeamBand(seamBand);
+      }
+
+      BufferedImage edgeTile = ImageUtil.createImage(edgePixels, tileResolution, tileResolution);
+      BufferedImage sampleTile = ImageUtil.createImage(samplePixels, tileResolution, tileResolution);
+      return StrictWangTileGenerator.mergeTile(graphs, edgeTile, sampleTile, false);
+   }
+
+
+   /**
+    * Writes the rgb channels of the pixels, 3 bytes each.
+    */
+   static void writePixels(DataOutputStream output, int[] pixels) throws IOException
+   {
+      byte[] bytes = new byte[3 * pixels.length];
+      for (int i = 0; i < pixels.length; i++)
+      {
+         bytes[3 * i] = (byte) (pixels[i] >> 16);
+         bytes[3 * i + 1] = (byte) (pixels[i] >> 8);
+         bytes[3 * i + 2] = (byte) pixels[i];
+      }
+      output.write(bytes);
+   }
+
+
+   /**
+    * Reads pixels written by {@link #writePixels}, as opaque packed rgb values.
+    */
+   static int[] readPixels(DataInputStream input, int count) throws IOException
+   {
+      byte[] bytes = new byte[3 * count];
+      input.readFully(bytes);
+      int[] pixels = new int[count];
+      for (int i = 0; i < count; i++)
+      {
+         pixels[i] = 0xFF000000 | (bytes[3 * i] & 0xFF) << 16 | (bytes[3 * i + 1] & 0xFF) << 8 | bytes[3 * i + 2] & 0xFF;
+      }
+      return pixels;
+   }
+}
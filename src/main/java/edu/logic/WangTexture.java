@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import java.awt.image.BufferedImage;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * A texture, that is never baked: its pixels are read on demand from a tile atlas and a map of the tiles. The atlas is
+ * packed like the user interface saves it, 2 x 2 tiles for 4 tiles, 4 x 2 for 8 and 4 x 4 for 16, tile 0 top left,
+ * row by row. The map is either a map of {@link TileMapGenerator} or a {@link HashedTileMap}, which makes the texture
+ * endless.
+ * <p>
+ * Pixels are packed rgb values as returned by {@link ImageUtil#getPixels}. The texture holds no mutable state, so it may
+ * be read by any number of threads at once.
+ *
+ * @author agent
+ */
+public final class WangTexture
+{
+   // Width and height of the tiles
+   private final int tileResolution;
+   // Packed rgb values of the atlas in row major order
+   private final int[] atlasPixels;
+   private final int atlasWidth;
+   // Index of the top left pixel of each tile in atlasPixels
+   private final int[] tileOffsets;
+
+   // Map of TileMapGenerator and its size in tiles, or null
+   private final short[] map;
+   private final int columns;
+   private final int rows;
+   // Endless map, or null
+   private final HashedTileMap hashedMap;
+
+
+   /**
+    * A texture of columns x rows tiles.
+    *
+    * @param map
+    *           The tile of each cell, row by row, as returned by {@link TileMapGenerator#generate}.
+    */
+   public WangTexture(BufferedImage atlas, int numberOfTiles, short[] map, int columns, int rows)
+   {
+      if (columns < 1 || rows < 1)
+      {
+         throw new IllegalArgumentException("Columns and rows must be at least 1.");
+      }
+      if ((long) columns * rows > map.length)
+      {
+         throw new IllegalArgumentException("Map must have " + columns + " x " + rows + " cells.");
+      }
+      this.map = map;
+      this.columns = columns;
+      this.rows = rows;
+      hashedMap = null;
+
+      atlasPixels = ImageUtil.getPixels(atlas);
+      atlasWidth = atlas.getWidth();
+      tileResolution = getTileResolution(atlas, numberOfTiles);
+      tileOffsets = getTileOffsets(numberOfTiles, tileResolution, atlasWidth);
+      checkTiles(map, columns * rows, numberOfTiles);
+   }
+
+
+   /**
+    * An endless texture.
+    *
+    * @param hashedMap
+    *           A map of the same number of tiles as the atlas.
+    */
+   public WangTexture(BufferedImage atlas, int numberOfTiles, HashedTileMap hashedMap)
+   {
+      if (hashedMap.getNumberOfTiles() != numberOfTiles)
+      {
+         throw new IllegalArgumentException("Map has " + hashedMap.getNumberOfTiles() + " tiles, atlas has " + numberOfTiles + " tiles.");
+      }
+      map = null;
+      columns = Integer.MAX_VALUE;
+      rows = Integer.MAX_VALUE;
+      this.hashedMap = hashedMap;
+
+      atlasPixels = ImageUtil.getPixels(atlas);
+      atlasWidth = atlas.getWidth();
+      tileResolution = getTileResolution(atlas, numberOfTiles);
+      tileOffsets = getTileOffsets(numberOfTiles, tileResolution, atlasWidth);
+   }
+
+
+   /**
+    * @return The width of the tiles in an atlas of 2 x 2 tiles for 4 tiles, 4 x 2 for 8 and 4 x 4 for 16.
+    */
+   private static int getTileResolution(BufferedImage atlas, int numberOfTiles)
+   {
+      int atlasColumns = getAtlasColumns(numberOfTiles);
+      int tileResolution = atlas.getWidth() / atlasColumns;
+      if (tileResolution < 1 || atlas.getWidth() != tileResolution * atlasColumns
+          || atlas.getHeight() != tileResolution * (numberOfTiles / atlasColumns))
+      {
+         throw new IllegalArgumentException("Atlas must hold " + atlasColumns + " x " + numberOfTiles / atlasColumns + " square tiles.");
+      }
+      return tileResolution;
+   }
+
+
+   private static int getAtlasColumns(int numberOfTiles)
+   {
+      // Fails for unsupported numbers of tiles
+      StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles);
+      return numberOfTiles == 4 ? 2 : 4;
+   }
+
+
+   private static int[] getTileOffsets(int numberOfTiles, int tileResolution, int atlasWidth)
+   {
+      int atlasColumns = getAtlasColumns(numberOfTiles);
+      int[] tileOffsets = new int[numberOfTiles];
+      for (int tile = 0; tile < numberOfTiles; tile++)
+      {
+         tileOffsets[tile] = tile / atlasColumns * tileResolution * atlasWidth + tile % atlasColumns * tileResolution;
+      }
+      return tileOffsets;
+   }
+
+
+   private static void checkTiles(short[] map, int cells, int numberOfTiles)
+   {
+      for (int i = 0; i < cells; i++)
+      {
+         if (map[i] < 0 || map[i] >= numberOfTiles)
+         {
+            throw new IllegalArgumentException("Map holds tile " + map[i] + ", atlas has " + numberOfTiles + " tiles.");
+         }
+      }
+   }
+
+
+   public int getTileResolution()
+   {
+      return tileResolution;
+   }
+
+
+   /**
+    * @return The pixel at x, y.
+    * @throws IllegalArgumentException
+    *            If the pixel is outside of a texture of limited size.
+    */
+   public int sample(long x, long y)
+   {
+      checkRegion(x, y, 1, 1);
+      int tileX = (int) floorMod(x, tileResolution);
+      int tileY = (int) floorMod(y, tileResolution);
+      int tile = getTile(floorDiv(x, tileResolution), floorDiv(y, tileResolution));
+      return atlasPixels[tileOffsets[tile] + tileY * atlasWidth + tileX];
+   }
+
+
+   /**
+    * Copies the pixels of a rectangle into dst, row by row. Allocates nothing: the tile of each cell covered by the
+    * rectangle is looked up once, then its lines are copied from the atlas one by one.
+    *
+    * @param dst
+    *           Must have room for width * height pixels.
+    * @throws IllegalArgumentException
+    *            If the rectangle is not inside of a texture of limited size.
+    */
+   public void readRegion(long x, long y, int width, int height, int[] dst)
+   {
+      if (width < 0 || height < 0 || (long) width * height > dst.length)
+      {
+         throw new IllegalArgumentException("Destination must have room for " + width + " x " + height + " pixels.");
+      }
+      checkRegion(x, y, width, height);
+
+      int j = 0;
+      while (j < height)
+      {
+         int row = floorDiv(y + j, tileResolution);
+         int tileY = (int) floorMod(y + j, tileResolution);
+         // Lines of this row of tiles within the rectangle
+         int lines = Math.min(height - j, tileResolution - tileY);
+         int i = 0;
+         while (i < width)
+         {
+            int column = floorDiv(x + i, tileResolution);
+            int tileX = (int) floorMod(x + i, tileResolution);
+            int span = Math.min(width - i, tileResolution - tileX);
+
+            int source = tileOffsets[getTile(column, row)] + tileY * atlasWidth + tileX;
+            int destination = j * width + i;
+            for (int line = 0; line < lines; line++)
+            {
+               System.arraycopy(atlasPixels, source, dst, destination, span);
+               source += atlasWidth;
+               destination += width;
+            }
+            i += span;
+         }
+         j += lines;
+      }
+   }
+
+
+   private void checkRegion(long x, long y, int width, int height)
+   {
+      if (map != null && (x < 0 || y < 0 || x + width > (long) columns * tileResolution || y + height > (long) rows * tileResolution))
+      {
+         throw new IllegalArgumentException("Region must lie within the texture of " + (long) columns * tileResolution + " x "
+                                            + (long) rows * tileResolution + " pixels.");
+      }
+   }
+
+
+   private int getTile(int column, int row)
+   {
+      return map != null ? map[row * columns + column] : hashedMap.getTile(column, row);
+   }
+
+
+   /**
+    * @return The largest value, that is at most a / b. Fails for an endless texture beyond the range of the map.
+    */
+   private static int floorDiv(long a, int b)
+   {
+      long quotient = a / b;
+      if (a % b < 0)
+      {
+         quotient--;
+      }
+      if (quotient != (int) quotient)
+      {
+         throw new IllegalArgumentException("Pixel " + a + " is beyond the range of the map.");
+      }
+      return (int) quotient;
+   }
+
+
+   private static long floorMod(long a, int b)
+   {
+      long remainder = a % b;
+      return remainder < 0 ? remainder + b : remainder;
+   }
+}
@@ -10,273 +10,504 @@
  *******************************************************************************/
 package edu.logic.graphs;
 
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.image.BufferedImage;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-
-import org.jgrapht.alg.DijkstraShortestPath;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.SimpleWeightedGraph;
-
-import edu.logic.util.GraphNodeHorizontalComparator;
-import edu.logic.util.GraphNodeVerticalComparator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
 import edu.logic.util.ImageUtil;
 
 
 // TODO: Kommentare anpassen -> auf dijkstra umstellen
 /**
  * Base class to create a pixel graph.
- * Uses JGraphT Dijkstra-Implementation to find the lowest cost path within the graph
+ * Uses the chosen {@link SeamEngine} to find the lowest cost path within the graph
  * and merges the edge and sample image using the results of the cut.
+ * All areas are solved as the top area: the {@link CostField#getView view} of the cost field rotates the area to the top,
+ * the seam is found there in row order and mapped back into the area. The subclasses only choose the area.
+ * Instances keep no state of a tile, {@link #execute} may be called by several threads at once. Settings like
+ * {@link #setSeamBand} must be made before.
  *
  * @author Christian
  */
 public abstract class BaseAreaGraph
 {
-   protected GraphNode[][] graphNodes;
+   /**
+    * Engine used, if none is specified.
+    */
+   public final static SeamEngine DEFAULT_SEAM_ENGINE = SeamEngine.GRID;
 
-   protected final GraphNode firstNode;
-   protected final GraphNode secondNode;
+   // SeamEngine.MULTIRESOLUTION searches the whole area, if the resolution would drop below this value
+   private final static int COARSEST_RESOLUTION = 64;
+   // Distance in pixels the search corridor reaches beyond the upsampled coarse seam
+   private final static int CORRIDOR_RADIUS = 4;
+
+   /**
+    * Width of the band around the seam, that is smoothed, if none is specified. 1 only smoothes the seam itself.
+    */
+   public final static int DEFAULT_SEAM_BAND = 1;
+
+   protected final PixelTopology topology;
+
+   // Index of the area as used by ImageUtil.getAreaIndex
+   protected final int areaIndex;
 
    /**
     * Width / Height of the image.
     */
-   protected int tileResolution;
+   protected final int tileResolution;
 
+   // Finds the lowest cost path
+   protected final SeamEngine seamEngine;
 
-   public BaseAreaGraph(GraphNode[][] graphNodes, int tileResolution, GraphNode firstNode, GraphNode secondNode)
-   {
-      this.graphNodes = graphNodes;
-      this.tileResolution = tileResolution;
+   // Pixels closer than this to the seam are smoothed
+   private int seamBand = DEFAULT_SEAM_BAND;
 
-      this.firstNode = firstNode;
-      this.secondNode = secondNode;
+
+   public BaseAreaGraph(PixelTopology topology, SeamEngine seamEngine, int areaIndex)
+   {
+      this.topology = topology;
+      this.areaIndex = areaIndex;
+      this.tileResolution = topology.getResolution();
+      this.seamEngine = seamEngine;
    }
 
 
    /**
-    * Creates edges for pairs of GraphNodes within the respective triangle area of the images.
-    * Then applies the JGraphT Dijkstra in order to find the lowest cost path within the graph.
-    * Returns a set of keys in the end. Each key is a string consisting of the x and y coordinate of each pixel, which has been
-    * choosen by the graphcut algorithm to be a pixel from the edgetile.
+    * @param seamBand
+    *           Width of the band around the seam, that is smoothed. 1 only smoothes the seam itself, 2 also its direct
+    *           neighbors and so on.
     */
-   public void execute(Graphics resultingGraphic, BufferedImage edgeTile, BufferedImage sampleTile)
+   public void setSeamBand(int seamBand)
    {
-      SimpleWeightedGraph<GraphNode, DefaultWeightedEdge> graph = generate(edgeTile, sampleTile);
-
-      TreeSet<GraphNode> bestPath = cut(graph);
-
-      Set<GraphNode> edgeNodes = getEdgeGraphNodes(bestPath.iterator());
-
-      merge(resultingGraphic, edgeNodes, bestPath, edgeTile, sampleTile);
+      if (seamBand < 1)
+      {
+         throw new IllegalArgumentException("Seam band must be at least 1.");
+      }
+      this.seamBand = seamBand;
    }
 
 
-
    /**
-    * Creates edges for pairs of GraphNodes within the respective triangle area of the images.
+    * Creates edges for pairs of nodes within the respective triangle area of the images.
+    * Then applies the {@link SeamEngine} in order to find the lowest cost path within the graph.
+    * Finally merges the pixels choosen by the graphcut algorithm from the edgetile with the remaining pixels of the sampletile.
+    *
+    * @param resultingPixels
+    *           Pixels of the resulting tile, as returned by {@link ImageUtil#getPixels}. Only the merge span of the area
+    *           (see {@link PixelTopology#getMergeStart}) is written, so the 4 areas of a tile may be executed concurrently.
+    * @param edgePixels
+    *           Pixels of the edge tile.
+    * @param samplePixels
+    *           Pixels of the sample tile.
+    * @param costField
+    *           Difference of edge and sample tile, shared by the graphs of all 4 areas.
     */
-   protected abstract SimpleWeightedGraph<GraphNode, DefaultWeightedEdge> generate(BufferedImage edgeTile, BufferedImage sampleImage);
+   public void execute(int[] resultingPixels, int[] edgePixels, int[] samplePixels, CostField costField)
+   {
+      merge(resultingPixels, solve(costField), edgePixels, samplePixels);
+   }
 
 
    /**
-    * Applies JGraphT's Dijkstra Implementation -> Finding the lowest cost path within the graph.
-    * The result is a treeset of {@link GraphNode} that lie on this path. These nodes are ordered horizontially, if in top or
-    * bottom area of graph and vertically if on the right or left side.
+    * First half of {@link #execute}: Creates the graph and finds the seam, that separates edge and sample tile.
     */
-   private TreeSet<GraphNode> cut(SimpleWeightedGraph<GraphNode, DefaultWeightedEdge> graph)
+   public Seam solve(CostField costField)
    {
-      // Find the lowest cost path using dijkstra algorithm
-      List<DefaultWeightedEdge> bestPath = DijkstraShortestPath.findPathBetween(graph, firstNode, secondNode);
-
-      // Sort results based on graph logic.
-      // This is very ugly, but i am lazy.
-      Comparator<GraphNode> comparator = null;
-      if (this instanceof RightAreaGraph || this instanceof LeftAreaGraph)
+      // Solve the area as top area of the rotated field
+      CostField view = costField.getView(areaIndex);
+      int[] bestPath;
+      BitSet viewEdgeNodes;
+      if (seamEngine == SeamEngine.MIN_CUT)
       {
-         comparator = new GraphNodeVerticalComparator();
-      }
-      else if (this instanceof TopAreaGraph || this instanceof BottomAreaGraph)
-      {
-         comparator = new GraphNodeHorizontalComparator();
+         // The cut itself decides, which pixels are taken from the edge tile
+         MinCutGraph graph = MinCutGraph.acquire(topology);
+         generate(graph, view);
+         bestPath = cut(graph, topology);
+         viewEdgeNodes = graph.getSourceNodes();
       }
       else
       {
-         try
-         {
-            throw new Exception("This type of graph is not supported.");
-         }
-         catch (Exception e)
-         {
-            e.printStackTrace();
-         }
+         bestPath = findSeam(view);
+         viewEdgeNodes = getEdgeGraphNodes(findCuts(bestPath));
       }
 
-      TreeSet<GraphNode> pathNodes = new TreeSet<GraphNode>(comparator);
-      for (DefaultWeightedEdge edge : bestPath)
+      // Rotate the result back into the area
+      int[] viewNodes = topology.getViewNodes(areaIndex);
+      BitSet edgeNodes = new BitSet(topology.getNodeCount());
+      for (int node = viewEdgeNodes.nextSetBit(0); node >= 0; node = viewEdgeNodes.nextSetBit(node + 1))
       {
-         pathNodes.add(graph.getEdgeSource(edge));
-         pathNodes.add(graph.getEdgeTarget(edge));
+         edgeNodes.set(viewNodes[node]);
       }
-      return pathNodes;
+      BitSet pathNodes = new BitSet(topology.getNodeCount());
+      for (int node : bestPath)
+      {
+         pathNodes.set(viewNodes[node]);
+      }
+      return new Seam(edgeNodes, pathNodes);
    }
 
 
    /**
-    * Returns a set of {@link GraphNode}. Each pixel with the same location as the {@link GraphNode} will be choosen from the
-    * edgetile.
+    * Creates the graph of the top area of view and finds the lowest cost path within it.
+    * {@link SeamEngine#MULTIRESOLUTION} restricts the graph to a corridor around the seam of the next coarser level.
     */
-   protected abstract Set<GraphNode> getEdgeGraphNodes(Iterator<GraphNode> bestPath);
+   private int[] findSeam(CostField view)
+   {
+      PixelTopology viewTopology = view.getTopology();
+      BitSet corridor = null;
+      if (seamEngine == SeamEngine.MULTIRESOLUTION && viewTopology.getResolution() / 2 >= COARSEST_RESOLUTION)
+      {
+         corridor = findCorridor(view.getCoarseField(), viewTopology.getResolution());
+      }
 
+      SeamGraph graph = seamEngine.createGraph(viewTopology, corridor);
+      generate(graph, view);
+      int[] bestPath = cut(graph, viewTopology);
 
-   /**
-    * Uses the 4 graphcuts to merge the sample and edgetile into one final resulting tile.
-    */
-   protected abstract void merge(Graphics resultingGraphic, Set<GraphNode> edgeNodes, TreeSet<GraphNode> bestPath, BufferedImage edgeTile, BufferedImage sampleTile);
+      // The corridor may in rare cases not connect both corners
+      if (bestPath.length == 0 && corridor != null)
+      {
+         graph = seamEngine.createGraph(viewTopology, null);
+         generate(graph, view);
+         bestPath = cut(graph, viewTopology);
+      }
+      return bestPath;
+   }
 
 
    /**
-    * Creates a weighted edge between two {@link GraphNode}.
+    * Solves the top area of the view on tiles of half the resolution and returns the nodes around the upsampled seam.
     */
-   protected void createEdge(SimpleWeightedGraph<GraphNode, DefaultWeightedEdge> graph, BufferedImage edgeTile, BufferedImage sampleImage, GraphNode left, GraphNode right)
+   private BitSet findCorridor(CostField coarseView, int resolution)
    {
-      if (right == null)
+      PixelTopology coarseTopology = coarseView.getTopology();
+      int[] coarsePath = findSeam(coarseView);
+
+      // Each coarse node covers 2x2 nodes, widened by the corridor radius
+      BitSet corridor = new BitSet(resolution * resolution);
+      for (int coarseNode : coarsePath)
       {
-         return;
+         int minX = Math.max(0, 2 * coarseTopology.getX(coarseNode) - CORRIDOR_RADIUS);
+         int maxX = Math.min(resolution - 1, 2 * coarseTopology.getX(coarseNode) + 1 + CORRIDOR_RADIUS);
+         int minY = Math.max(0, 2 * coarseTopology.getY(coarseNode) - CORRIDOR_RADIUS);
+         int maxY = Math.min(resolution - 1, 2 * coarseTopology.getY(coarseNode) + 1 + CORRIDOR_RADIUS);
+         for (int y = minY; y <= maxY; y++)
+         {
+            corridor.set(y * resolution + minX, y * resolution + maxX + 1);
+         }
       }
-      graph.addVertex(right);
-
-      double edgeWeight = calculateEdgeWeight(edgeTile, sampleImage, left, right);
-      graph.setEdgeWeight(graph.addEdge(left, right), edgeWeight);
+      return corridor;
    }
 
 
    /**
-    * Calculates the weight between two {@link GraphNode}. The edges of the graph are assigned infinite weights (boundries).
+    * Creates edges for pairs of nodes within the top area of the view, row by row.
     */
-   protected double calculateEdgeWeight(BufferedImage edgeTile, BufferedImage sampleImage, GraphNode left, GraphNode right)
+   private void generate(SeamGraph graph, CostField view)
    {
-      // Edges between most left and most right nodes have infinite edge weight
-      if ((left.getX() == 0 || right.getX() == tileResolution - 1) && left.getY() != right.getY())
+      PixelTopology viewTopology = view.getTopology();
+      int halfResolution = viewTopology.getResolution() / 2;
+      for (int y = 0; y < halfResolution; y++)
       {
-         return Double.MAX_VALUE;
+         checkCancelled();
+         int end = viewTopology.getGraphEnd(ImageUtil.TOP_AREA_INDEX, y);
+         for (int x = viewTopology.getGraphStart(ImageUtil.TOP_AREA_INDEX, y); x < end; x++)
+         {
+            int graphNode = viewTopology.getNode(x, y);
+            if (x < halfResolution) // Top left part
+            {
+               createEdge(graph, view, graphNode, viewTopology.getRightNeighbor(graphNode));
+            }
+            else if (x != halfResolution) // Top right part
+            {
+               createEdge(graph, view, graphNode, viewTopology.getLeftNeighbor(graphNode));
+            }
+            createEdge(graph, view, graphNode, viewTopology.getTopNeighbor(graphNode));
+         }
       }
-      else if ((left.getY() == 0 || right.getY() == tileResolution - 1) && left.getX() != right.getX())
-      // Edges between most upper and most bottom nodes have infinite edge weight
+   }
+
+
+   /**
+    * Aborts the current seam search, if the thread has been interrupted, e.g. because the generation has been cancelled.
+    * Called by the seam engines while they search, so that a cancel stops them within milliseconds.
+    *
+    * @throws CancellationException
+    *            If the thread has been interrupted. The interrupt flag stays set.
+    */
+   static void checkCancelled()
+   {
+      if (Thread.currentThread().isInterrupted())
       {
-         return Double.MAX_VALUE;
+         throw new CancellationException("Seam search interrupted.");
       }
-      else if (tileResolution - right.getX() - 1 == right.getY()) // Left Diagonale
+   }
+
+
+   /**
+    * Finds the lowest cost path between the upper corners of the view.
+    * The result is an array of the nodes that lie on this path, without duplicates. These nodes are ordered horizontially
+    * (by X, then Y).
+    */
+   private int[] cut(SeamGraph graph, PixelTopology viewTopology)
+   {
+      // Find the lowest cost path
+      int[] bestPath = graph.findLowestCostPath(viewTopology.getNode(0, 0), viewTopology.getNode(viewTopology.getResolution() - 1, 0));
+
+      // The horizontal order is the order of the indices of the transposed nodes
+      int[] pathNodes = new int[bestPath.length];
+      for (int i = 0; i < bestPath.length; i++)
       {
-         return Double.MAX_VALUE;
+         pathNodes[i] = viewTopology.transpose(bestPath[i]);
       }
-      else if (right.getX() == right.getY()) // Right Diagonale
+      Arrays.sort(pathNodes);
+
+      int pathLength = 0;
+      for (int i = 0; i < pathNodes.length; i++)
       {
-         return Double.MAX_VALUE;
+         if (i == 0 || pathNodes[i] != pathNodes[i - 1])
+         {
+            pathNodes[pathLength++] = pathNodes[i];
+         }
       }
-      else
-      // Any other edge
+      for (int i = 0; i < pathLength; i++)
       {
-         // Calculate difference between edge and sample pixel at left location
-         Color As = new Color(edgeTile.getRGB(left.getX(), left.getY()));
-         Color Bs = new Color(sampleImage.getRGB(left.getX(), left.getY()));
-         double AsLength = ImageUtil.length(new float[] { As.getRed(), As.getGreen(), As.getBlue() });
-         double BsLength = ImageUtil.length(new float[] { Bs.getRed(), Bs.getGreen(), Bs.getBlue() });
-         double sLength = AsLength > BsLength ? AsLength - BsLength : BsLength - AsLength;
-
-         // Calculate difference between edge and sample pixel at right location
-         Color At = new Color(edgeTile.getRGB(right.getX(), right.getY()));
-         Color Bt = new Color(sampleImage.getRGB(right.getX(), right.getY()));
-         double AtLength = ImageUtil.length(new float[] { At.getRed(), At.getGreen(), At.getBlue() });
-         double BtLength = ImageUtil.length(new float[] { Bt.getRed(), Bt.getGreen(), Bt.getBlue() });
-         double tLength = AtLength > BtLength ? AtLength - BtLength : BtLength - AtLength;
-
-         return sLength + tLength;
+         pathNodes[i] = viewTopology.transpose(pathNodes[i]);
       }
+      return Arrays.copyOf(pathNodes, pathLength);
    }
 
 
    /**
-    * If edgeNodes contains node, returns the color of the pixel of the edgeTile at x,y-location.
-    * Else returns pixel of sampleTile.
-    * If bestPath contains node, a median color of the surrounding pixels of edgeTile and sampleTile is returned in order
-    * to reduce the visibility of the seam between edge- and sampleTile and thus further improve the quality of the results.
+    * Reduces the lowest cost path to one cut position per column of the view. The pixels of the seam are taken from the
+    * edge tile, except for the right area, which keeps them on the side of the sample tile.
+    *
+    * @param bestPath
+    *           The nodes of the lowest cost path, as ordered by {@link #cut}.
+    * @return The Y-Coordinate of the bottom most node taken from the edge tile, indexed by X. Without a path, the whole
+    *         area is taken from the edge tile, which matches the neighbors anyway.
     */
-   protected Color getColor(GraphNode node, Set<GraphNode> edgeNodes, TreeSet<GraphNode> bestPath, BufferedImage edgeTile, BufferedImage sampleTile)
+   private int[] findCuts(int[] bestPath)
    {
-      // If node not exactly on bestPath
-      if (!bestPath.contains(node))
+      int[] cuts = new int[tileResolution];
+      if (bestPath.length == 0)
       {
-         return edgeNodes.contains(node) ? new Color(edgeTile.getRGB(node.getX(), node.getY())) : new Color(sampleTile.getRGB(node.getX(), node.getY()));
+         Arrays.fill(cuts, tileResolution - 1);
+         return cuts;
       }
 
-      // Kill seam by replacing the color of the node with the median of its surrounding pixels
-      int counter = 0;
-      int r = 0, g = 0, b = 0;
-
-      Set<GraphNode> neighBors = new HashSet<GraphNode>();
-      GraphNode rightNeighBor = node.getRightNeighbor();
-      GraphNode bottomNeighBor = node.getBottomNeighbor();
-      GraphNode leftNeighBor = node.getLeftNeighbor();
-      GraphNode topNeighBor = node.getTopNeighbor();
-      if (rightNeighBor != null)
-      {
-         neighBors.add(rightNeighBor);
-      }
-      if (bottomNeighBor != null)
+      boolean rightArea = areaIndex == ImageUtil.RIGHT_AREA_INDEX;
+      if (rightArea)
       {
-         neighBors.add(bottomNeighBor);
+         // In the right area the seam is followed from the bottom to the top of each column of the view
+         bestPath = bestPath.clone();
+         int columnStart = 0;
+         for (int i = 1; i <= bestPath.length; i++)
+         {
+            if (i == bestPath.length || topology.getX(bestPath[i]) != topology.getX(bestPath[columnStart]))
+            {
+               reverse(bestPath, columnStart, i);
+               columnStart = i;
+            }
+         }
       }
-      if (leftNeighBor != null)
+
+      // Only the bottom area counts the last node of the path, the corner of the other areas is added anyway
+      int pathEnd = areaIndex == ImageUtil.BOTTOM_AREA_INDEX ? bestPath.length : bestPath.length - 1;
+      int pathIndex = 0;
+      int cutNode = PixelTopology.NO_NODE;
+      for (int x = 0; x < tileResolution; x++)
       {
-         neighBors.add(leftNeighBor);
+         // Find the last cutpoint for this X-Coordinate
+         while (pathIndex < pathEnd && topology.getX(bestPath[pathIndex]) == x)
+         {
+            cutNode = bestPath[pathIndex++];
+         }
+         // The top most node of the right area is the first one, that is kept
+         cuts[x] = rightArea ? topology.getY(cutNode) - 1 : topology.getY(cutNode);
       }
-      if (topNeighBor != null)
+      return cuts;
+   }
+
+
+   private static void reverse(int[] values, int start, int end)
+   {
+      for (int i = start, j = end - 1; i < j; i++, j--)
       {
-         neighBors.add(topNeighBor);
+         int value = values[i];
+         values[i] = values[j];
+         values[j] = value;
       }
-      if (rightNeighBor != null)
+   }
+
+
+   /**
+    * Returns the set of nodes of the view, whose pixels will be choosen from the edgetile.
+    *
+    * @param cuts
+    *           The cut positions as returned by {@link #findCuts}.
+    */
+   private BitSet getEdgeGraphNodes(int[] cuts)
+   {
+      BitSet edgeNodes = new BitSet(topology.getNodeCount());
+      for (int x = 0; x < tileResolution; x++)
       {
-         if (topNeighBor != null)
+         // All nodes whose Y-Coordinate are equal or less than the cutPoint are added to the result.
+         for (int y = 0; y <= cuts[x]; y++)
          {
-            neighBors.add(topNeighBor.getRightNeighbor());
+            edgeNodes.set(topology.getNode(x, y));
          }
-         if (bottomNeighBor != null)
+      }
+      // Add corners for better quality
+      edgeNodes.set(topology.getNode(0, 0));
+      edgeNodes.set(topology.getNode(tileResolution - 1, 0));
+      edgeNodes.set(topology.getNode(1, 1));
+      edgeNodes.set(topology.getNode(tileResolution - 2, 1));
+      return edgeNodes;
+   }
+
+
+   /**
+    * Second half of {@link #execute}: Uses the graphcut to merge the sample and edgetile within the area of the final
+    * resulting tile. Each row is copied as runs of pixels, that all come from the same tile. The pixels of the seam are
+    * smoothed afterwards.
+    */
+   public void merge(int[] resultingPixels, Seam seam, int[] edgePixels, int[] samplePixels)
+   {
+      BitSet edgeNodes = seam.getEdgeNodes();
+      for (int y = 0; y < tileResolution; y++)
+      {
+         int start = topology.getNode(topology.getMergeStart(areaIndex, y), y);
+         int end = topology.getNode(topology.getMergeEnd(areaIndex, y), y);
+         while (start < end)
          {
-            neighBors.add(bottomNeighBor.getRightNeighbor());
+            boolean edge = edgeNodes.get(start);
+            int runEnd = edge ? edgeNodes.nextClearBit(start) : edgeNodes.nextSetBit(start);
+            if (runEnd < 0 || runEnd > end)
+            {
+               runEnd = end;
+            }
+            System.arraycopy(edge ? edgePixels : samplePixels, start, resultingPixels, start, runEnd - start);
+            start = runEnd;
          }
       }
-      if (leftNeighBor != null)
+
+      BitSet band = getSeamBand(seam.getPathNodes());
+      for (int node = band.nextSetBit(0); node >= 0; node = band.nextSetBit(node + 1))
       {
-         if (topNeighBor != null)
+         int x = topology.getX(node);
+         int y = topology.getY(node);
+         if (x >= topology.getMergeStart(areaIndex, y) && x < topology.getMergeEnd(areaIndex, y))
          {
-            neighBors.add(topNeighBor.getLeftNeighbor());
+            resultingPixels[node] = getColor(node, edgeNodes, edgePixels, samplePixels);
          }
-         if (bottomNeighBor != null)
+      }
+   }
+
+
+   /**
+    * @return The nodes of bestPath widened by seamBand - 1 pixels in every direction.
+    */
+   private BitSet getSeamBand(BitSet bestPath)
+   {
+      if (seamBand == 1)
+      {
+         return bestPath;
+      }
+
+      int radius = seamBand - 1;
+      BitSet band = new BitSet(topology.getNodeCount());
+      for (int node = bestPath.nextSetBit(0); node >= 0; node = bestPath.nextSetBit(node + 1))
+      {
+         int minX = Math.max(0, topology.getX(node) - radius);
+         int maxX = Math.min(tileResolution - 1, topology.getX(node) + radius);
+         int minY = Math.max(0, topology.getY(node) - radius);
+         int maxY = Math.min(tileResolution - 1, topology.getY(node) + radius);
+         for (int y = minY; y <= maxY; y++)
          {
-            neighBors.add(bottomNeighBor.getLeftNeighbor());
+            band.set(topology.getNode(minX, y), topology.getNode(maxX, y) + 1);
          }
       }
+      return band;
+   }
+
+
+   /**
+    * Creates a weighted edge between two nodes.
+    */
+   private void createEdge(SeamGraph graph, CostField view, int left, int right)
+   {
+      if (right == PixelTopology.NO_NODE || !graph.accepts(left, right))
+      {
+         return;
+      }
+
+      // The borders of a minimum cut are given by its terminals, not by infinite weights
+      double edgeWeight = seamEngine == SeamEngine.MIN_CUT ? view.getDifference(left, right) : calculateEdgeWeight(view, left, right);
+      graph.addEdge(left, right, edgeWeight);
+   }
 
-      for (GraphNode neighBor : neighBors)
+
+   /**
+    * Calculates the weight between two nodes. The edges along the borders and diagonals of the graph are assigned
+    * infinite weights (boundries), those leaving the upper corners are free.
+    */
+   private double calculateEdgeWeight(CostField view, int left, int right)
+   {
+      PixelTopology viewTopology = view.getTopology();
+
+      // Graphcut exit points
+      if (viewTopology.getY(left) == 0 && (viewTopology.getX(left) == 0 || viewTopology.getX(left) == viewTopology.getResolution() - 1))
       {
-         Color color = edgeNodes.contains(neighBor) ? new Color(edgeTile.getRGB(neighBor.getX(), neighBor.getY())) : new Color(sampleTile.getRGB(neighBor.getX(), neighBor.getY()));
-         r += color.getRed();
-         g += color.getGreen();
-         b += color.getBlue();
-         counter++;
+         return 0;
+      }
+      if (view.isBlocked(left, right))
+      {
+         return Double.MAX_VALUE;
+      }
+      return view.getDifference(left, right);
+   }
+
+
+   /**
+    * Returns a median color of the surrounding pixels of edgeTile and sampleTile for a node near the seam, in order
+    * to reduce the visibility of the seam between edge- and sampleTile and thus further improve the quality of the results.
+    * The surrounding pixels are the up to 8 pixels of the 3x3 block centered on node, each taken from the tile edgeNodes
+    * choose for it.
+    */
+   protected int getColor(int node, BitSet edgeNodes, int[] edgePixels, int[] samplePixels)
+   {
+      int x = topology.getX(node);
+      int y = topology.getY(node);
+      int minX = Math.max(0, x - 1);
+      int maxX = Math.min(tileResolution - 1, x + 1);
+      int minY = Math.max(0, y - 1);
+      int maxY = Math.min(tileResolution - 1, y + 1);
+
+      // Kill seam by replacing the color of the node with the median of its surrounding pixels
+      int counter = 0;
+      int r = 0, g = 0, b = 0;
+      for (int neighborY = minY; neighborY <= maxY; neighborY++)
+      {
+         int end = topology.getNode(maxX, neighborY);
+         for (int neighBor = topology.getNode(minX, neighborY); neighBor <= end; neighBor++)
+         {
+            if (neighBor == node)
+            {
+               continue;
+            }
+            int rgb = edgeNodes.get(neighBor) ? edgePixels[neighBor] : samplePixels[neighBor];
+            r += (rgb >> 16) & 0xFF;
+            g += (rgb >> 8) & 0xFF;
+            b += rgb & 0xFF;
+            counter++;
+         }
       }
 
       r /= counter;
       g /= counter;
       b /= counter;
 
-      return new Color(r, g, b);
+      return 0xFF000000 | r << 16 | g << 8 | b;
    }
 }
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Difference between an edge and a sample tile, computed once per tile and shared by the four area graphs.
+ * Each pixel holds |length(edge pixel) - length(sample pixel)|, the weight of an edge is the sum of the values of its two nodes.
+ * Edges that must never be cut (tile borders and diagonals) are looked up in a mask, that only depends on the resolution.
+ * A {@link #getView view} rotates an area to the top, so that all areas are solved by the same code in row order.
+ *
+ * @author agent
+ */
+public final class CostField
+{
+   // Directions of an edge, bit positions within the blocked mask
+   private final static int RIGHT = 0;
+   private final static int BOTTOM = 1;
+   private final static int LEFT = 2;
+   private final static int TOP = 3;
+
+   // Blocked edges per resolution: bit d of a node is set, if the edge to its neighbor in direction d has infinite weight
+   private final static ConcurrentMap<Integer, byte[]> BLOCKED_MASKS = new ConcurrentHashMap<Integer, byte[]>();
+
+   private final PixelTopology topology;
+   private final BufferedImage edgeTile;
+   private final BufferedImage sampleTile;
+
+   // Difference per node, shared by the views
+   private final float[] costs;
+   private final byte[] blockedMask;
+
+   // Only set for a view: the rotated field, the area shown at the top and the node of costs shown by each node
+   private final CostField viewedField;
+   private final int viewedArea;
+   private final int[] viewNodes;
+
+   // Same field for tiles of half the resolution, created on demand
+   private CostField coarseField;
+
+
+   public CostField(PixelTopology topology, BufferedImage edgeTile, BufferedImage sampleTile)
+   {
+      this.topology = topology;
+      this.edgeTile = edgeTile;
+      this.sampleTile = sampleTile;
+
+      int[] edgePixels = ImageUtil.getPixels(edgeTile);
+      int[] samplePixels = ImageUtil.getPixels(sampleTile);
+      costs = new float[topology.getNodeCount()];
+      computeCosts(edgePixels, samplePixels, costs);
+
+      blockedMask = getBlockedMask(topology);
+      viewedField = null;
+      viewedArea = ImageUtil.TOP_AREA_INDEX;
+      viewNodes = null;
+   }
+
+
+   /**
+    * Shows the costs of viewedField in the orientation, in which viewedArea lies at the top. Nothing is copied, the view
+    * reads the costs of viewedField through the node mapping.
+    */
+   private CostField(CostField viewedField, int viewedArea)
+   {
+      this.topology = viewedField.topology;
+      this.edgeTile = null;
+      this.sampleTile = null;
+      this.viewedField = viewedField;
+      this.viewedArea = viewedArea;
+
+      this.viewNodes = topology.getViewNodes(viewedArea);
+      costs = viewedField.costs;
+
+      // Borders and diagonals are symmetric, the mask is the same in every orientation
+      blockedMask = viewedField.blockedMask;
+   }
+
+
+   /**
+    * Computes |length(edge pixel) - length(sample pixel)| for all nodes, the lengths as {@link ImageUtil#length} on the
+    * color channels of the packed rgb values. The loop has no branches and no calls, so the JIT compiles it to SIMD
+    * instructions; the arithmetic stays the same, the costs do not depend on whether it does.
+    */
+   private static void computeCosts(int[] edgePixels, int[] samplePixels, float[] costs)
+   {
+      for (int node = 0; node < costs.length; node++)
+      {
+         int edgeRgb = edgePixels[node];
+         int sampleRgb = samplePixels[node];
+         float edgeRed = (edgeRgb >> 16) & 0xFF, edgeGreen = (edgeRgb >> 8) & 0xFF, edgeBlue = edgeRgb & 0xFF;
+         float sampleRed = (sampleRgb >> 16) & 0xFF, sampleGreen = (sampleRgb >> 8) & 0xFF, sampleBlue = sampleRgb & 0xFF;
+
+         double edgeLength = Math.sqrt(edgeRed * edgeRed + edgeGreen * edgeGreen + edgeBlue * edgeBlue);
+         double sampleLength = Math.sqrt(sampleRed * sampleRed + sampleGreen * sampleGreen + sampleBlue * sampleBlue);
+         costs[node] = (float) Math.abs(edgeLength - sampleLength);
+      }
+   }
+
+
+   private static byte[] getBlockedMask(PixelTopology topology)
+   {
+      byte[] blockedMask = BLOCKED_MASKS.get(topology.getResolution());
+      if (blockedMask == null)
+      {
+         BLOCKED_MASKS.putIfAbsent(topology.getResolution(), createBlockedMask(topology));
+         blockedMask = BLOCKED_MASKS.get(topology.getResolution());
+      }
+      return blockedMask;
+   }
+
+
+   /**
+    * Edges along the tile borders and edges leading onto a diagonal get infinite weight.
+    */
+   private static byte[] createBlockedMask(PixelTopology topology)
+   {
+      int resolution = topology.getResolution();
+      byte[] blockedMask = new byte[topology.getNodeCount()];
+      for (int node = 0; node < blockedMask.length; node++)
+      {
+         int[] neighbors = new int[] { topology.getRightNeighbor(node), topology.getBottomNeighbor(node), topology.getLeftNeighbor(node),
+            topology.getTopNeighbor(node) };
+         for (int direction = RIGHT; direction <= TOP; direction++)
+         {
+            int neighbor = neighbors[direction];
+            if (neighbor == PixelTopology.NO_NODE)
+            {
+               continue;
+            }
+            int leftX = topology.getX(node), leftY = topology.getY(node);
+            int rightX = topology.getX(neighbor), rightY = topology.getY(neighbor);
+
+            boolean blocked = ((leftX == 0 || rightX == resolution - 1) && leftY != rightY) // Most left and most right column
+            || ((leftY == 0 || rightY == resolution - 1) && leftX != rightX) // Most upper and most bottom row
+            || resolution - rightX - 1 == rightY // Left Diagonale
+            || rightX == rightY; // Right Diagonale
+            if (blocked)
+            {
+               blockedMask[node] = (byte) (blockedMask[node] | 1 << direction);
+            }
+         }
+      }
+      return blockedMask;
+   }
+
+
+   public PixelTopology getTopology()
+   {
+      return topology;
+   }
+
+
+   /**
+    * @return true, if the edge from left to its neighbor right must never be cut.
+    */
+   public boolean isBlocked(int left, int right)
+   {
+      int direction;
+      if (right == left + 1)
+      {
+         direction = RIGHT;
+      }
+      else if (right == left - 1)
+      {
+         direction = LEFT;
+      }
+      else
+      {
+         direction = right > left ? BOTTOM : TOP;
+      }
+      return (blockedMask[left] & (1 << direction)) != 0;
+   }
+
+
+   /**
+    * @return How much edge and sample tile differ at the locations of two nodes.
+    */
+   public double getDifference(int left, int right)
+   {
+      if (viewNodes == null)
+      {
+         return (double) costs[left] + costs[right];
+      }
+      return (double) costs[viewNodes[left]] + costs[viewNodes[right]];
+   }
+
+
+   /**
+    * Returns the field rotated, so that the given area lies at the top. Node n of the view has the costs of node
+    * {@link PixelTopology#getViewNodes}(areaIndex)[n] of this field. Must not be called on a view.
+    *
+    * @return This field itself for the top area, otherwise a view sharing the costs of this field.
+    */
+   public CostField getView(int areaIndex)
+   {
+      return areaIndex == ImageUtil.TOP_AREA_INDEX ? this : new CostField(this, areaIndex);
+   }
+
+
+   /**
+    * @return The field of both tiles scaled down to half their resolution. For a view the same view of that field.
+    */
+   public synchronized CostField getCoarseField()
+   {
+      if (coarseField == null && viewedField != null)
+      {
+         // Halving the resolution keeps 2x2 blocks together, so it commutes with the rotation
+         coarseField = viewedField.getCoarseField().getView(viewedArea);
+      }
+      else if (coarseField == null)
+      {
+         coarseField = new CostField(PixelTopology.forResolution(topology.getResolution() / 2), ImageUtil.scaleDownHalf(edgeTile),
+            ImageUtil.scaleDownHalf(sampleTile));
+      }
+      return coarseField;
+   }
+}
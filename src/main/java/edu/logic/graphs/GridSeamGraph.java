@@ -0,0 +1,560 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * {@link SeamGraph} that lives on the implicit pixel grid of a tile.
+ * Nodes are addressed by their index y * tileResolution + x, neighbors are found by arithmetic and
+ * the edge weights are kept in two primitive arrays (edge to the right and edge to the bottom neighbor).
+ * The lowest cost path is found by Dijkstra's algorithm, either with a binary heap or with a bucket queue
+ * working on edge weights rounded to integers, or by dynamic programming, if only monotone paths are wanted.
+ * Each thread keeps one instance and reuses it for every resolution its arrays have room for, e.g. the coarse levels of
+ * {@link SeamEngine#MULTIRESOLUTION}, so no arrays have to be allocated once a thread has solved its first area. A larger
+ * resolution replaces the instance, so a thread never holds more than one graph.
+ *
+ * @author agent
+ */
+final class GridSeamGraph implements SeamGraph
+{
+   // Marks a pair of adjacent nodes that is not connected
+   private final static double NO_EDGE = -1;
+   // Edge weights are multiplied by this factor before they are rounded for the bucket queue
+   private final static double BUCKET_SCALE = 4;
+
+   // Scratch graph of the current thread
+   private final static ThreadLocal<GridSeamGraph> SCRATCH = new ThreadLocal<GridSeamGraph>();
+
+   // Resolution of the current area and its number of nodes, at most the length of the arrays
+   private int tileResolution;
+   private int nodeCount;
+
+   // Weight of the edge between a node and its right / bottom neighbor
+   private final double[] rightWeights;
+   private final double[] bottomWeights;
+   // A node is part of the graph, if its stamp equals the current stamp
+   private final int[] stamps;
+   private int stamp;
+   // Nodes that are part of the graph
+   private final int[] touchedNodes;
+   private int touchedCount;
+
+   // Search state
+   private final double[] distances;
+   private final int[] predecessors;
+   // Position of a node in the heap or index of its bucket, -1 if not queued
+   private final int[] queuePositions;
+
+   // Binary heap of node indices, ordered by distance
+   private final int[] heap;
+   private int heapSize;
+
+   // Bucket queue: one doubly linked list of nodes per distance modulo number of buckets
+   private int[] bucketHeads = new int[0];
+   private final int[] bucketNext;
+   private final int[] bucketPrevious;
+   private int maxBucketWeight;
+
+   // GRID, GRID_BUCKET, MONOTONE or MULTIRESOLUTION
+   private SeamEngine seamEngine;
+   // Nodes the graph is restricted to, null for no restriction
+   private BitSet corridor;
+
+
+   private GridSeamGraph(int nodeCount)
+   {
+      rightWeights = new double[nodeCount];
+      bottomWeights = new double[nodeCount];
+      stamps = new int[nodeCount];
+      touchedNodes = new int[nodeCount];
+      distances = new double[nodeCount];
+      predecessors = new int[nodeCount];
+      queuePositions = new int[nodeCount];
+      heap = new int[nodeCount];
+      bucketNext = new int[nodeCount];
+      bucketPrevious = new int[nodeCount];
+   }
+
+
+   /**
+    * Returns the empty scratch graph of the current thread.
+    * The graph stays valid until the next call of this methode on the same thread.
+    */
+   static GridSeamGraph acquire(PixelTopology topology, SeamEngine seamEngine, BitSet corridor)
+   {
+      int tileResolution = topology.getResolution();
+      GridSeamGraph graph = SCRATCH.get();
+      if (graph == null || graph.stamps.length < tileResolution * tileResolution)
+      {
+         graph = new GridSeamGraph(tileResolution * tileResolution);
+         SCRATCH.set(graph);
+      }
+      graph.reset(tileResolution, seamEngine, corridor);
+      return graph;
+   }
+
+
+   private void reset(int tileResolution, SeamEngine seamEngine, BitSet corridor)
+   {
+      this.tileResolution = tileResolution;
+      nodeCount = tileResolution * tileResolution;
+      this.seamEngine = seamEngine;
+      this.corridor = corridor;
+
+      if (++stamp == 0)
+      {
+         Arrays.fill(stamps, 0);
+         stamp = 1;
+      }
+      touchedCount = 0;
+      maxBucketWeight = 0;
+   }
+
+
+   @Override
+   public boolean accepts(int source, int target)
+   {
+      return corridor == null || (corridor.get(source) && corridor.get(target));
+   }
+
+
+   @Override
+   public void addEdge(int source, int target, double weight)
+   {
+      touch(source);
+      touch(target);
+
+      int low = Math.min(source, target);
+      int high = Math.max(source, target);
+      if (high - low == 1 && low / tileResolution == high / tileResolution)
+      {
+         rightWeights[low] = weight;
+      }
+      else if (high - low == tileResolution)
+      {
+         bottomWeights[low] = weight;
+      }
+      else
+      {
+         throw new IllegalArgumentException("Nodes are not adjacent.");
+      }
+
+      if (!isBlocked(weight))
+      {
+         maxBucketWeight = Math.max(maxBucketWeight, quantize(weight));
+      }
+   }
+
+
+   /**
+    * Adds node to the graph, if it is not part of it yet.
+    */
+   private void touch(int node)
+   {
+      if (stamps[node] != stamp)
+      {
+         stamps[node] = stamp;
+         rightWeights[node] = NO_EDGE;
+         bottomWeights[node] = NO_EDGE;
+         touchedNodes[touchedCount++] = node;
+      }
+   }
+
+
+   @Override
+   public int[] findLowestCostPath(int source, int target)
+   {
+      if (stamps[source] != stamp || stamps[target] != stamp)
+      {
+         return new int[0];
+      }
+
+      boolean found;
+      if (seamEngine == SeamEngine.MONOTONE)
+      {
+         found = searchMonotone(source, target);
+      }
+      else
+      {
+         // Infinite edges are left out by the bucket queue. If that disconnects the graph, fall back to the heap.
+         found = seamEngine == SeamEngine.GRID_BUCKET && searchBuckets(source, target);
+         if (!found)
+         {
+            found = searchHeap(source, target);
+         }
+      }
+
+      if (!found)
+      {
+         return new int[0];
+      }
+      int pathLength = 0;
+      for (int node = target; node >= 0; node = predecessors[node])
+      {
+         pathLength++;
+      }
+      int[] pathNodes = new int[pathLength];
+      for (int node = target; node >= 0; node = predecessors[node])
+      {
+         pathNodes[--pathLength] = node;
+      }
+      return pathNodes;
+   }
+
+
+   /**
+    * Prepares the search state of all nodes of the graph.
+    */
+   private void resetSearch(int source)
+   {
+      for (int i = 0; i < touchedCount; i++)
+      {
+         int node = touchedNodes[i];
+         distances[node] = Double.POSITIVE_INFINITY;
+         predecessors[node] = -1;
+         queuePositions[node] = -1;
+      }
+      distances[source] = 0;
+   }
+
+
+   /**
+    * Dijkstra using a binary heap.
+    */
+   private boolean searchHeap(int source, int target)
+   {
+      resetSearch(source);
+      heapSize = 0;
+      heapInsert(source);
+
+      while (heapSize > 0)
+      {
+         BaseAreaGraph.checkCancelled();
+         int node = heapPoll();
+         if (node == target)
+         {
+            return true;
+         }
+
+         int x = node % tileResolution;
+         if (x != tileResolution - 1)
+         {
+            relaxHeap(node, node + 1, rightWeights[node]);
+         }
+         if (x != 0 && stamps[node - 1] == stamp)
+         {
+            relaxHeap(node, node - 1, rightWeights[node - 1]);
+         }
+         if (node + tileResolution < nodeCount)
+         {
+            relaxHeap(node, node + tileResolution, bottomWeights[node]);
+         }
+         if (node >= tileResolution && stamps[node - tileResolution] == stamp)
+         {
+            relaxHeap(node, node - tileResolution, bottomWeights[node - tileResolution]);
+         }
+      }
+      return false;
+   }
+
+
+   private void relaxHeap(int from, int to, double weight)
+   {
+      if (weight < 0)
+      {
+         return;
+      }
+      double distance = distances[from] + weight;
+      if (distance < distances[to])
+      {
+         distances[to] = distance;
+         predecessors[to] = from;
+         if (queuePositions[to] < 0)
+         {
+            heap[heapSize] = to;
+            queuePositions[to] = heapSize;
+            heapSize++;
+         }
+         siftUp(queuePositions[to]);
+      }
+   }
+
+
+   private void heapInsert(int node)
+   {
+      heap[heapSize] = node;
+      queuePositions[node] = heapSize;
+      siftUp(heapSize++);
+   }
+
+
+   private int heapPoll()
+   {
+      int first = heap[0];
+      queuePositions[first] = -1;
+      heapSize--;
+      if (heapSize > 0)
+      {
+         heap[0] = heap[heapSize];
+         queuePositions[heap[0]] = 0;
+         siftDown(0);
+      }
+      return first;
+   }
+
+
+   private void siftUp(int position)
+   {
+      int node = heap[position];
+      double distance = distances[node];
+      while (position > 0)
+      {
+         int parentPosition = (position - 1) >>> 1;
+         int parent = heap[parentPosition];
+         if (distances[parent] <= distance)
+         {
+            break;
+         }
+         heap[position] = parent;
+         queuePositions[parent] = position;
+         position = parentPosition;
+      }
+      heap[position] = node;
+      queuePositions[node] = position;
+   }
+
+
+   private void siftDown(int position)
+   {
+      int node = heap[position];
+      double distance = distances[node];
+      int half = heapSize >>> 1;
+      while (position < half)
+      {
+         int childPosition = 2 * position + 1;
+         int child = heap[childPosition];
+         if (childPosition + 1 < heapSize && distances[heap[childPosition + 1]] < distances[child])
+         {
+            child = heap[++childPosition];
+         }
+         if (distance <= distances[child])
+         {
+            break;
+         }
+         heap[position] = child;
+         queuePositions[child] = position;
+         position = childPosition;
+      }
+      heap[position] = node;
+      queuePositions[node] = position;
+   }
+
+
+   /**
+    * Dijkstra using a bucket queue (Dial's algorithm) on integer edge weights.
+    * Edges of infinite weight are skipped.
+    */
+   private boolean searchBuckets(int source, int target)
+   {
+      int bucketCount = maxBucketWeight + 1;
+      if (bucketHeads.length < bucketCount)
+      {
+         bucketHeads = new int[bucketCount];
+      }
+      Arrays.fill(bucketHeads, 0, bucketCount, -1);
+
+      resetSearch(source);
+      bucketInsert(source, 0);
+      int queued = 1;
+
+      // All queued distances lie within [distance, distance + maxBucketWeight]
+      for (int distance = 0; queued > 0; distance++)
+      {
+         BaseAreaGraph.checkCancelled();
+         int bucket = distance % bucketCount;
+         while (bucketHeads[bucket] >= 0)
+         {
+            int node = bucketHeads[bucket];
+            bucketRemove(node);
+            queued--;
+            if (node == target)
+            {
+               return true;
+            }
+
+            int x = node % tileResolution;
+            if (x != tileResolution - 1)
+            {
+               queued += relaxBucket(node, node + 1, rightWeights[node], distance, bucketCount);
+            }
+            if (x != 0 && stamps[node - 1] == stamp)
+            {
+               queued += relaxBucket(node, node - 1, rightWeights[node - 1], distance, bucketCount);
+            }
+            if (node + tileResolution < nodeCount)
+            {
+               queued += relaxBucket(node, node + tileResolution, bottomWeights[node], distance, bucketCount);
+            }
+            if (node >= tileResolution && stamps[node - tileResolution] == stamp)
+            {
+               queued += relaxBucket(node, node - tileResolution, bottomWeights[node - tileResolution], distance, bucketCount);
+            }
+         }
+      }
+      return false;
+   }
+
+
+   /**
+    * @return 1 if a node has been added to the queue, else 0.
+    */
+   private int relaxBucket(int from, int to, double weight, int fromDistance, int bucketCount)
+   {
+      if (weight < 0 || isBlocked(weight))
+      {
+         return 0;
+      }
+      int distance = fromDistance + quantize(weight);
+      if (distance < distances[to])
+      {
+         distances[to] = distance;
+         predecessors[to] = from;
+         if (queuePositions[to] >= 0)
+         {
+            bucketRemove(to);
+            bucketInsert(to, distance % bucketCount);
+            return 0;
+         }
+         bucketInsert(to, distance % bucketCount);
+         return 1;
+      }
+      return 0;
+   }
+
+
+   private void bucketInsert(int node, int bucket)
+   {
+      int head = bucketHeads[bucket];
+      bucketNext[node] = head;
+      bucketPrevious[node] = -1;
+      if (head >= 0)
+      {
+         bucketPrevious[head] = node;
+      }
+      bucketHeads[bucket] = node;
+      queuePositions[node] = bucket;
+   }
+
+
+   private void bucketRemove(int node)
+   {
+      int next = bucketNext[node];
+      int previous = bucketPrevious[node];
+      if (previous >= 0)
+      {
+         bucketNext[previous] = next;
+      }
+      else
+      {
+         bucketHeads[queuePositions[node]] = next;
+      }
+      if (next >= 0)
+      {
+         bucketPrevious[next] = previous;
+      }
+      queuePositions[node] = -1;
+   }
+
+
+   /**
+    * Dynamic programming over the lines between source and target: columns, if both lie in the same row, else rows.
+    * Only finds paths that never step back towards the line of the source, but needs no priority queue.
+    * Each line is entered from the previous one and then swept once in each direction along the line.
+    */
+   private boolean searchMonotone(int source, int target)
+   {
+      resetSearch(source);
+
+      boolean horizontal = source / tileResolution == target / tileResolution;
+      // Index distance between neighbors along a line and between neighboring lines
+      int alongStep = horizontal ? tileResolution : 1;
+      int acrossStep = horizontal ? 1 : tileResolution;
+      int firstLine = horizontal ? source % tileResolution : source / tileResolution;
+      int lastLine = horizontal ? target % tileResolution : target / tileResolution;
+      int direction = lastLine >= firstLine ? 1 : -1;
+
+      for (int line = firstLine;; line += direction)
+      {
+         BaseAreaGraph.checkCancelled();
+         int lineStart = line * acrossStep;
+         int lineEnd = lineStart + tileResolution * alongStep;
+
+         // Enter the line from the previous one
+         if (line != firstLine)
+         {
+            for (int node = lineStart; node < lineEnd; node += alongStep)
+            {
+               relaxLine(node - direction * acrossStep, node);
+            }
+         }
+
+         // Move along the line
+         for (int node = lineStart + alongStep; node < lineEnd; node += alongStep)
+         {
+            relaxLine(node - alongStep, node);
+         }
+         for (int node = lineEnd - 2 * alongStep; node >= lineStart; node -= alongStep)
+         {
+            relaxLine(node + alongStep, node);
+         }
+
+         if (line == lastLine)
+         {
+            return distances[target] < Double.POSITIVE_INFINITY;
+         }
+      }
+   }
+
+
+   private void relaxLine(int from, int to)
+   {
+      if (stamps[from] != stamp || stamps[to] != stamp)
+      {
+         return;
+      }
+      double weight = to - from == 1 || from - to == 1 ? rightWeights[Math.min(from, to)] : bottomWeights[Math.min(from, to)];
+      if (weight < 0)
+      {
+         return;
+      }
+      double distance = distances[from] + weight;
+      if (distance < distances[to])
+      {
+         distances[to] = distance;
+         predecessors[to] = from;
+      }
+   }
+
+
+   private static int quantize(double weight)
+   {
+      return (int) Math.round(weight * BUCKET_SCALE);
+   }
+
+
+   private static boolean isBlocked(double weight)
+   {
+      return weight >= Double.MAX_VALUE;
+   }
+}
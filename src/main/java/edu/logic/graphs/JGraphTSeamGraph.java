@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+
+/**
+ * Reference {@link SeamGraph} backed by a JGraphT {@link SimpleWeightedGraph}.
+ * Slow, but kept to verify the results of the other engines.
+ *
+ * @author agent
+ */
+class JGraphTSeamGraph implements SeamGraph
+{
+   private final SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+
+   // Nodes the graph is restricted to, null for no restriction
+   private final BitSet corridor;
+
+
+   JGraphTSeamGraph(BitSet corridor)
+   {
+      this.corridor = corridor;
+   }
+
+
+   @Override
+   public boolean accepts(int source, int target)
+   {
+      return corridor == null || (corridor.get(source) && corridor.get(target));
+   }
+
+
+   @Override
+   public void addEdge(int source, int target, double weight)
+   {
+      graph.addVertex(source);
+      graph.addVertex(target);
+      graph.setEdgeWeight(graph.addEdge(source, target), weight);
+   }
+
+
+   @Override
+   public int[] findLowestCostPath(int source, int target)
+   {
+      // An end without edges is no vertex of the graph
+      if (!graph.containsVertex(source) || !graph.containsVertex(target))
+      {
+         return new int[0];
+      }
+
+      // Find the lowest cost path using dijkstra algorithm, null if there is none
+      List<DefaultWeightedEdge> bestPath = DijkstraShortestPath.findPathBetween(graph, source, target);
+      if (bestPath == null)
+      {
+         return new int[0];
+      }
+
+      int[] pathNodes = new int[2 * bestPath.size()];
+      int i = 0;
+      for (DefaultWeightedEdge edge : bestPath)
+      {
+         pathNodes[i++] = graph.getEdgeSource(edge);
+         pathNodes[i++] = graph.getEdgeTarget(edge);
+      }
+      return pathNodes;
+   }
+}
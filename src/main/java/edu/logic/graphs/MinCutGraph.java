@@ -0,0 +1,548 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * {@link SeamGraph} that computes a true s-t minimum cut instead of a path.
+ * Pixels on the border of the tile are tied to the source (edge tile), pixels on the inner border of the area
+ * are tied to the sink (sample tile). The maximum flow is found by the Boykov-Kolmogorov algorithm, working on
+ * primitive arrays with the grid adjacency left implicit (4 arcs per node: right, bottom, left, top).
+ * Each thread keeps one instance and reuses it for every resolution its arrays have room for.
+ *
+ * @author agent
+ */
+final class MinCutGraph implements SeamGraph
+{
+   // Arc directions, the opposite direction is (direction + 2) % 4
+   private final static int RIGHT = 0;
+   private final static int BOTTOM = 1;
+   private final static int LEFT = 2;
+   private final static int TOP = 3;
+
+   // Parent markers besides an arc direction
+   private final static int TERMINAL = 4;
+   private final static int ORPHAN = 5;
+
+   // Search trees
+   private final static byte FREE = 0;
+   private final static byte SOURCE = 1;
+   private final static byte SINK = 2;
+
+   private final static int INFINITE_DISTANCE = Integer.MAX_VALUE;
+
+   // Scratch graph of the current thread
+   private final static ThreadLocal<MinCutGraph> SCRATCH = new ThreadLocal<MinCutGraph>();
+
+   // Resolution of the current area and its number of nodes, at most the length of the arrays
+   private int tileResolution;
+   private int nodeCount;
+
+   // Residual capacity of the arc leaving node i in direction d, stored at 4 * i + d
+   private final float[] capacities;
+   // Bit d is set, if node i has an arc in direction d
+   private final byte[] arcs;
+   // Index difference to the neighbor in each direction
+   private final int[] offsets = new int[4];
+   // A node is part of the graph, if its stamp equals the current stamp
+   private final int[] stamps;
+   private int stamp;
+   // Nodes that are part of the graph
+   private final int[] touchedNodes;
+   private int touchedCount;
+
+   // Search trees: tree membership, direction of the arc to the parent and distance to the terminal
+   private final byte[] trees;
+   private final int[] parents;
+   private final int[] distances;
+   // Distances are valid, if the timestamp of a node equals the current time
+   private final int[] timestamps;
+   private int time;
+
+   // FIFO of active nodes
+   private final int[] activeQueue;
+   private final boolean[] active;
+   private int activeFirst;
+   private int activeCount;
+
+   // FIFO of orphans
+   private final int[] orphans;
+   private int orphanFirst;
+   private int orphanCount;
+
+   private PixelTopology topology;
+
+
+   private MinCutGraph(int nodeCount)
+   {
+      capacities = new float[4 * nodeCount];
+      arcs = new byte[nodeCount];
+      stamps = new int[nodeCount];
+      touchedNodes = new int[nodeCount];
+      trees = new byte[nodeCount];
+      parents = new int[nodeCount];
+      distances = new int[nodeCount];
+      timestamps = new int[nodeCount];
+      activeQueue = new int[nodeCount];
+      active = new boolean[nodeCount];
+      orphans = new int[nodeCount];
+   }
+
+
+   /**
+    * Returns the empty scratch graph of the current thread.
+    * The graph stays valid until the next call of this methode on the same thread. A thread keeps one graph and only
+    * replaces it, if a larger resolution is needed.
+    */
+   static MinCutGraph acquire(PixelTopology topology)
+   {
+      int tileResolution = topology.getResolution();
+      MinCutGraph graph = SCRATCH.get();
+      if (graph == null || graph.stamps.length < tileResolution * tileResolution)
+      {
+         graph = new MinCutGraph(tileResolution * tileResolution);
+         SCRATCH.set(graph);
+      }
+      graph.tileResolution = tileResolution;
+      graph.nodeCount = tileResolution * tileResolution;
+      graph.offsets[0] = 1;
+      graph.offsets[1] = tileResolution;
+      graph.offsets[2] = -1;
+      graph.offsets[3] = -tileResolution;
+      graph.topology = topology;
+      if (++graph.stamp == 0)
+      {
+         Arrays.fill(graph.stamps, 0);
+         graph.stamp = 1;
+      }
+      graph.touchedCount = 0;
+      return graph;
+   }
+
+
+   @Override
+   public boolean accepts(int source, int target)
+   {
+      return true;
+   }
+
+
+   @Override
+   public void addEdge(int source, int target, double weight)
+   {
+      touch(source);
+      touch(target);
+
+      int direction;
+      if (target == topology.getRightNeighbor(source))
+      {
+         direction = RIGHT;
+      }
+      else if (target == topology.getLeftNeighbor(source))
+      {
+         direction = LEFT;
+      }
+      else if (target == topology.getBottomNeighbor(source))
+      {
+         direction = BOTTOM;
+      }
+      else if (target == topology.getTopNeighbor(source))
+      {
+         direction = TOP;
+      }
+      else
+      {
+         throw new IllegalArgumentException("Nodes are not adjacent.");
+      }
+      capacities[4 * source + direction] = (float) weight;
+      capacities[4 * target + opposite(direction)] = (float) weight;
+      arcs[source] = (byte) (arcs[source] | 1 << direction);
+      arcs[target] = (byte) (arcs[target] | 1 << opposite(direction));
+   }
+
+
+   /**
+    * Adds node to the graph, if it is not part of it yet.
+    */
+   private void touch(int node)
+   {
+      if (stamps[node] != stamp)
+      {
+         stamps[node] = stamp;
+         Arrays.fill(capacities, 4 * node, 4 * node + 4, 0);
+         arcs[node] = 0;
+         touchedNodes[touchedCount++] = node;
+      }
+   }
+
+
+   /**
+    * Computes the minimum cut. The corners only serve to find out which side of the tile the area belongs to.
+    *
+    * @return The nodes on the source side of the cut that have a neighbor on the sink side.
+    */
+   @Override
+   public int[] findLowestCostPath(int source, int target)
+   {
+      int areaIndex = topology.getAreaIndex(topology.getNode((topology.getX(source) + topology.getX(target)) / 2,
+         (topology.getY(source) + topology.getY(target)) / 2));
+      initializeTrees(areaIndex);
+      maxflow();
+
+      int[] cutNodes = new int[touchedCount];
+      int cutCount = 0;
+      for (int i = 0; i < touchedCount; i++)
+      {
+         int node = touchedNodes[i];
+         if (trees[node] != SOURCE)
+         {
+            continue;
+         }
+         for (int direction = RIGHT; direction <= TOP; direction++)
+         {
+            int neighbor = neighbor(node, direction);
+            if (neighbor >= 0 && trees[neighbor] != SOURCE)
+            {
+               cutNodes[cutCount++] = node;
+               break;
+            }
+         }
+      }
+      return Arrays.copyOf(cutNodes, cutCount);
+   }
+
+
+   /**
+    * @return The nodes on the source side of the cut, calculated by the last call of {@link #findLowestCostPath}.
+    */
+   public BitSet getSourceNodes()
+   {
+      BitSet sourceNodes = new BitSet(nodeCount);
+      for (int i = 0; i < touchedCount; i++)
+      {
+         int node = touchedNodes[i];
+         if (trees[node] == SOURCE)
+         {
+            sourceNodes.set(node);
+         }
+      }
+      return sourceNodes;
+   }
+
+
+   /**
+    * Nodes on the tile border become the roots of the source tree.
+    * Nodes beyond the diagonals of the area or at the inner end of the graph become the roots of the sink tree.
+    */
+   private void initializeTrees(int areaIndex)
+   {
+      time = 0;
+      activeFirst = 0;
+      activeCount = 0;
+      orphanFirst = 0;
+      orphanCount = 0;
+
+      for (int i = 0; i < touchedCount; i++)
+      {
+         int node = touchedNodes[i];
+         int x = topology.getX(node);
+         int y = topology.getY(node);
+         trees[node] = FREE;
+         timestamps[node] = 0;
+         active[node] = false;
+
+         if (x == 0 || y == 0 || x == tileResolution - 1 || y == tileResolution - 1)
+         {
+            trees[node] = SOURCE;
+         }
+         else if (x < topology.getAreaStart(areaIndex, y) || x >= topology.getAreaEnd(areaIndex, y)
+         || stamps[node - 1] != stamp || stamps[node + 1] != stamp
+         || stamps[node - tileResolution] != stamp || stamps[node + tileResolution] != stamp)
+         {
+            trees[node] = SINK;
+         }
+
+         if (trees[node] != FREE)
+         {
+            parents[node] = TERMINAL;
+            distances[node] = 1;
+            pushActive(node);
+         }
+      }
+   }
+
+
+   /**
+    * Boykov-Kolmogorov: grow both search trees until they touch, push flow along the found path,
+    * then rebuild the trees from the nodes whose parent arc got saturated.
+    */
+   private void maxflow()
+   {
+      while (true)
+      {
+         BaseAreaGraph.checkCancelled();
+
+         // Growth stage
+         int pathNode = -1;
+         int pathDirection = -1;
+         while (activeCount > 0 && pathNode < 0)
+         {
+            int node = activeQueue[activeFirst];
+            byte tree = trees[node];
+            if (tree != FREE)
+            {
+               for (int direction = RIGHT; direction <= TOP; direction++)
+               {
+                  int neighbor = neighbor(node, direction);
+                  if (neighbor < 0 || !hasResidual(node, neighbor, direction, tree))
+                  {
+                     continue;
+                  }
+                  if (trees[neighbor] == FREE)
+                  {
+                     trees[neighbor] = tree;
+                     parents[neighbor] = opposite(direction);
+                     timestamps[neighbor] = timestamps[node];
+                     distances[neighbor] = distances[node] + 1;
+                     pushActive(neighbor);
+                  }
+                  else if (trees[neighbor] != tree)
+                  {
+                     pathNode = node;
+                     pathDirection = direction;
+                     break;
+                  }
+                  else if (timestamps[neighbor] <= timestamps[node] && distances[neighbor] > distances[node])
+                  {
+                     // Shorten the path of the neighbor to its terminal
+                     parents[neighbor] = opposite(direction);
+                     timestamps[neighbor] = timestamps[node];
+                     distances[neighbor] = distances[node] + 1;
+                  }
+               }
+            }
+            // The node stays active, if it may still reach the other tree
+            if (pathNode < 0)
+            {
+               popActive();
+            }
+         }
+         if (pathNode < 0)
+         {
+            return;
+         }
+
+         time++;
+         augment(pathNode, pathDirection);
+         adopt();
+      }
+   }
+
+
+   /**
+    * Pushes the bottleneck capacity along the path through the arc leaving node in direction.
+    * Nodes whose arc to their parent gets saturated become orphans.
+    */
+   private void augment(int node, int direction)
+   {
+      int neighbor = neighbor(node, direction);
+      int sourceEnd = trees[node] == SOURCE ? node : neighbor;
+      int sinkEnd = trees[node] == SOURCE ? neighbor : node;
+      int middleArc = 4 * sourceEnd + (trees[node] == SOURCE ? direction : opposite(direction));
+
+      // Find bottleneck. The arcs to the terminals have infinite capacity.
+      float bottleneck = capacities[middleArc];
+      for (int i = sourceEnd; parents[i] != TERMINAL; i += offsets[parents[i]])
+      {
+         bottleneck = Math.min(bottleneck, capacities[4 * (i + offsets[parents[i]]) + opposite(parents[i])]);
+      }
+      for (int i = sinkEnd; parents[i] != TERMINAL; i += offsets[parents[i]])
+      {
+         bottleneck = Math.min(bottleneck, capacities[4 * i + parents[i]]);
+      }
+
+      // Push flow
+      capacities[middleArc] -= bottleneck;
+      capacities[4 * sinkEnd + opposite(middleArc & 3)] += bottleneck;
+      for (int i = sourceEnd; parents[i] != TERMINAL;)
+      {
+         int parentDirection = parents[i];
+         int parent = i + offsets[parentDirection];
+         capacities[4 * i + parentDirection] += bottleneck;
+         if ((capacities[4 * parent + opposite(parentDirection)] -= bottleneck) <= 0)
+         {
+            pushOrphan(i);
+         }
+         i = parent;
+      }
+      for (int i = sinkEnd; parents[i] != TERMINAL;)
+      {
+         int parentDirection = parents[i];
+         int parent = i + offsets[parentDirection];
+         capacities[4 * parent + opposite(parentDirection)] += bottleneck;
+         if ((capacities[4 * i + parentDirection] -= bottleneck) <= 0)
+         {
+            pushOrphan(i);
+         }
+         i = parent;
+      }
+   }
+
+
+   /**
+    * Tries to find a new parent for each orphan, that is still connected to the terminal of its tree.
+    * Orphans without a new parent become free nodes and their children become orphans.
+    */
+   private void adopt()
+   {
+      while (orphanCount > 0)
+      {
+         int orphan = orphans[orphanFirst];
+         orphanFirst = (orphanFirst + 1) % orphans.length;
+         orphanCount--;
+         byte tree = trees[orphan];
+
+         int bestDirection = -1;
+         int bestDistance = INFINITE_DISTANCE;
+         for (int direction = RIGHT; direction <= TOP; direction++)
+         {
+            int neighbor = neighbor(orphan, direction);
+            if (neighbor < 0 || trees[neighbor] != tree || !hasResidual(neighbor, orphan, opposite(direction), tree))
+            {
+               continue;
+            }
+
+            // Check whether the neighbor is still connected to the terminal
+            int distance = 0;
+            for (int i = neighbor;; i += offsets[parents[i]])
+            {
+               if (timestamps[i] == time)
+               {
+                  distance += distances[i];
+                  break;
+               }
+               distance++;
+               if (parents[i] == TERMINAL)
+               {
+                  timestamps[i] = time;
+                  distances[i] = 1;
+                  break;
+               }
+               if (parents[i] == ORPHAN)
+               {
+                  distance = INFINITE_DISTANCE;
+                  break;
+               }
+            }
+            if (distance == INFINITE_DISTANCE)
+            {
+               continue;
+            }
+            if (distance < bestDistance)
+            {
+               bestDirection = direction;
+               bestDistance = distance;
+            }
+            // Remember the distances along the checked path
+            for (int i = neighbor; timestamps[i] != time; i += offsets[parents[i]])
+            {
+               timestamps[i] = time;
+               distances[i] = distance--;
+            }
+         }
+
+         if (bestDirection >= 0)
+         {
+            parents[orphan] = bestDirection;
+            timestamps[orphan] = time;
+            distances[orphan] = bestDistance + 1;
+            continue;
+         }
+
+         // No new parent: free the orphan, its children become orphans
+         for (int direction = RIGHT; direction <= TOP; direction++)
+         {
+            int neighbor = neighbor(orphan, direction);
+            if (neighbor < 0 || trees[neighbor] != tree)
+            {
+               continue;
+            }
+            if (hasResidual(neighbor, orphan, opposite(direction), tree))
+            {
+               pushActive(neighbor);
+            }
+            int parentDirection = parents[neighbor];
+            if (parentDirection < TERMINAL && neighbor + offsets[parentDirection] == orphan)
+            {
+               pushOrphan(neighbor);
+            }
+         }
+         trees[orphan] = FREE;
+      }
+   }
+
+
+   /**
+    * @return true, if the tree may grow from node to neighbor: the arc points away from the source within the source tree
+    *         and towards the sink within the sink tree.
+    */
+   private boolean hasResidual(int node, int neighbor, int direction, byte tree)
+   {
+      if (tree == SOURCE)
+      {
+         return capacities[4 * node + direction] > 0;
+      }
+      return capacities[4 * neighbor + opposite(direction)] > 0;
+   }
+
+
+   /**
+    * @return Index of the neighbor in direction or -1, if there is no arc in this direction.
+    */
+   private int neighbor(int node, int direction)
+   {
+      return (arcs[node] & (1 << direction)) != 0 ? node + offsets[direction] : -1;
+   }
+
+
+   private void pushActive(int node)
+   {
+      if (!active[node])
+      {
+         active[node] = true;
+         activeQueue[(activeFirst + activeCount++) % activeQueue.length] = node;
+      }
+   }
+
+
+   private void popActive()
+   {
+      active[activeQueue[activeFirst]] = false;
+      activeFirst = (activeFirst + 1) % activeQueue.length;
+      activeCount--;
+   }
+
+
+   private void pushOrphan(int node)
+   {
+      parents[node] = ORPHAN;
+      orphans[(orphanFirst + orphanCount++) % orphans.length] = node;
+   }
+
+
+   private static int opposite(int direction)
+   {
+      return (direction + 2) & 3;
+   }
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * The pixel grid of a quadratic tile, used as the node set of the area graphs.
+ * A node is addressed by its index y * resolution + x and its neighbors are found by arithmetic.
+ * The 4 triangle areas (top, right, bottom, left) are stored as a table of row spans: for each area and row the first x
+ * and the x after the last pixel. Instances are immutable and shared by everything working on the same resolution.
+ * The resolution is a power of two, so the areas are symmetric and each halving for a coarser level stays even.
+ *
+ * @author agent
+ */
+public final class PixelTopology
+{
+   /**
+    * Returned instead of a neighbor that lies outside of the image.
+    */
+   public final static int NO_NODE = -1;
+
+   // One topology per resolution
+   private final static ConcurrentMap<Integer, PixelTopology> TOPOLOGIES = new ConcurrentHashMap<Integer, PixelTopology>();
+
+   // Width and height of the image
+   private final int resolution;
+
+   // Row spans of the areas as defined by ImageUtil.getAreaIndex, indexed by areaIndex * resolution + y
+   private final int[] areaStarts;
+   private final int[] areaEnds;
+   // Row spans of the area graphs: each area plus the pixels next to its diagonals
+   private final int[] graphStarts;
+   private final int[] graphEnds;
+   // Row spans of the pixels written by the merge of an area: its graph without the pixels of the graphs of later areas
+   private final int[] mergeStarts;
+   private final int[] mergeEnds;
+   // For each area and each node of the top area orientation the node it shows, indexed by areaIndex
+   private final int[][] viewNodes;
+
+
+   private PixelTopology(int resolution)
+   {
+      this.resolution = resolution;
+
+      areaStarts = new int[4 * resolution];
+      areaEnds = new int[4 * resolution];
+      graphStarts = new int[4 * resolution];
+      graphEnds = new int[4 * resolution];
+
+      int halfResolution = resolution / 2;
+      for (int y = 0; y < resolution; y++)
+      {
+         if (y < halfResolution) // Upper half: left, top and right area
+         {
+            setSpan(areaStarts, areaEnds, ImageUtil.LEFT_AREA_INDEX, y, 0, y + 1);
+            setSpan(areaStarts, areaEnds, ImageUtil.TOP_AREA_INDEX, y, y + 1, resolution - y);
+            setSpan(areaStarts, areaEnds, ImageUtil.RIGHT_AREA_INDEX, y, resolution - y, resolution);
+
+            setSpan(graphStarts, graphEnds, ImageUtil.TOP_AREA_INDEX, y, Math.max(0, y - 1), Math.min(resolution - 1, 2 * halfResolution - y) + 1);
+         }
+         else
+         // Lower half: left, bottom and right area
+         {
+            setSpan(areaStarts, areaEnds, ImageUtil.LEFT_AREA_INDEX, y, 0, resolution - 1 - y);
+            setSpan(areaStarts, areaEnds, ImageUtil.BOTTOM_AREA_INDEX, y, resolution - 1 - y, y);
+            setSpan(areaStarts, areaEnds, ImageUtil.RIGHT_AREA_INDEX, y, y, resolution);
+
+            setSpan(graphStarts, graphEnds, ImageUtil.BOTTOM_AREA_INDEX, y, Math.max(0, 2 * halfResolution - 2 - y), Math.min(resolution - 1, y + 1) + 1);
+         }
+         setSpan(graphStarts, graphEnds, ImageUtil.RIGHT_AREA_INDEX, y, Math.max(halfResolution, Math.max(2 * halfResolution - 2 - y, y - 1)), resolution);
+         setSpan(graphStarts, graphEnds, ImageUtil.LEFT_AREA_INDEX, y, 0, Math.min(halfResolution - 1, Math.min(y + 1, 2 * halfResolution - y)) + 1);
+      }
+
+      // The graphs overlap next to the diagonals, there the area merged last decides the pixel.
+      // The remaining pixels of each area form a single span per row.
+      mergeStarts = new int[4 * resolution];
+      mergeEnds = new int[4 * resolution];
+      for (int y = 0; y < resolution; y++)
+      {
+         int[] first = new int[] { resolution, resolution, resolution, resolution };
+         int[] last = new int[] { -1, -1, -1, -1 };
+         for (int x = 0; x < resolution; x++)
+         {
+            for (int areaIndex = ImageUtil.LEFT_AREA_INDEX; areaIndex >= ImageUtil.TOP_AREA_INDEX; areaIndex--)
+            {
+               if (x >= getGraphStart(areaIndex, y) && x < getGraphEnd(areaIndex, y))
+               {
+                  first[areaIndex] = Math.min(first[areaIndex], x);
+                  last[areaIndex] = x;
+                  break;
+               }
+            }
+         }
+         for (int areaIndex = ImageUtil.TOP_AREA_INDEX; areaIndex <= ImageUtil.LEFT_AREA_INDEX; areaIndex++)
+         {
+            setSpan(mergeStarts, mergeEnds, areaIndex, y, first[areaIndex], last[areaIndex] + 1);
+         }
+      }
+
+      // Right and left area are transposed, right and bottom area are mirrored, so that each lies at the top
+      viewNodes = new int[4][resolution * resolution];
+      for (int y = 0; y < resolution; y++)
+      {
+         for (int x = 0; x < resolution; x++)
+         {
+            int node = getNode(x, y);
+            viewNodes[ImageUtil.TOP_AREA_INDEX][node] = node;
+            viewNodes[ImageUtil.RIGHT_AREA_INDEX][node] = getNode(resolution - 1 - y, x);
+            viewNodes[ImageUtil.BOTTOM_AREA_INDEX][node] = getNode(x, resolution - 1 - y);
+            viewNodes[ImageUtil.LEFT_AREA_INDEX][node] = getNode(y, x);
+         }
+      }
+   }
+
+
+   private void setSpan(int[] starts, int[] ends, int areaIndex, int y, int start, int end)
+   {
+      starts[areaIndex * resolution + y] = start;
+      ends[areaIndex * resolution + y] = Math.max(start, end);
+   }
+
+
+   /**
+    * @return The shared topology of images with the given width and height.
+    * @throws IllegalArgumentException
+    *            If the resolution is not a power of two of at least 2.
+    */
+   public static PixelTopology forResolution(int resolution)
+   {
+      if (resolution < 2 || (resolution & resolution - 1) != 0)
+      {
+         throw new IllegalArgumentException("Resolution must be a power of two of at least 2.");
+      }
+      PixelTopology topology = TOPOLOGIES.get(resolution);
+      if (topology == null)
+      {
+         TOPOLOGIES.putIfAbsent(resolution, new PixelTopology(resolution));
+         topology = TOPOLOGIES.get(resolution);
+      }
+      return topology;
+   }
+
+
+   public int getResolution()
+   {
+      return resolution;
+   }
+
+
+   public int getNodeCount()
+   {
+      return resolution * resolution;
+   }
+
+
+   public int getNode(int x, int y)
+   {
+      return y * resolution + x;
+   }
+
+
+   public int getX(int node)
+   {
+      return node % resolution;
+   }
+
+
+   public int getY(int node)
+   {
+      return node / resolution;
+   }
+
+
+   /**
+    * Same as {@link ImageUtil#getAreaIndex}, but looked up in the span table.
+    */
+   public int getAreaIndex(int node)
+   {
+      int x = getX(node);
+      int y = getY(node);
+      for (int areaIndex = ImageUtil.TOP_AREA_INDEX; areaIndex < ImageUtil.LEFT_AREA_INDEX; areaIndex++)
+      {
+         if (x >= areaStarts[areaIndex * resolution + y] && x < areaEnds[areaIndex * resolution + y])
+         {
+            return areaIndex;
+         }
+      }
+      return ImageUtil.LEFT_AREA_INDEX;
+   }
+
+
+   /**
+    * @return The first x of row y, that lies in the area.
+    */
+   public int getAreaStart(int areaIndex, int y)
+   {
+      return areaStarts[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * @return The x after the last pixel of row y, that lies in the area. Equals {@link #getAreaStart}, if the row does not
+    *         cross the area.
+    */
+   public int getAreaEnd(int areaIndex, int y)
+   {
+      return areaEnds[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * @return The first x of row y, that lies in the graph of the area. The graph includes the pixels next to the diagonals.
+    */
+   public int getGraphStart(int areaIndex, int y)
+   {
+      return graphStarts[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * @return The x after the last pixel of row y, that lies in the graph of the area.
+    */
+   public int getGraphEnd(int areaIndex, int y)
+   {
+      return graphEnds[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * @return The first x of row y, that is written by the merge of the area. The merge spans of the 4 areas are disjoint
+    *         and cover the whole image, given the areas are merged in the order top, right, bottom, left.
+    */
+   public int getMergeStart(int areaIndex, int y)
+   {
+      return mergeStarts[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * @return The x after the last pixel of row y, that is written by the merge of the area.
+    */
+   public int getMergeEnd(int areaIndex, int y)
+   {
+      return mergeEnds[areaIndex * resolution + y];
+   }
+
+
+   /**
+    * Maps the top area onto another area: the returned array holds for each node of the top area orientation the node of
+    * the area at that place. The graph of an area, including its diagonals, borders and exit corners, is the graph of the
+    * top area in this view.
+    *
+    * @return The shared mapping, which must not be modified. The identity for the top area.
+    */
+   public int[] getViewNodes(int areaIndex)
+   {
+      return viewNodes[areaIndex];
+   }
+
+
+   /**
+    * @return The node at the position of node mirrored at the main diagonal (x and y swapped).
+    */
+   public int transpose(int node)
+   {
+      return getNode(getY(node), getX(node));
+   }
+
+
+   public int getRightNeighbor(int node)
+   {
+      return getX(node) != resolution - 1 ? node + 1 : NO_NODE;
+   }
+
+
+   public int getBottomNeighbor(int node)
+   {
+      return getY(node) != resolution - 1 ? node + resolution : NO_NODE;
+   }
+
+
+   public int getLeftNeighbor(int node)
+   {
+      return getX(node) != 0 ? node - 1 : NO_NODE;
+   }
+
+
+   public int getTopNeighbor(int node)
+   {
+      return getY(node) != 0 ? node - resolution : NO_NODE;
+   }
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.BitSet;
+
+
+/**
+ * The solved seam of one area of a tile, as found by {@link BaseAreaGraph#solve} and used by {@link BaseAreaGraph#merge}.
+ *
+ * @author agent
+ */
+public final class Seam
+{
+   // Nodes whose pixels are taken from the edge tile
+   private final BitSet edgeNodes;
+   // Nodes on the lowest cost path, these are smoothed
+   private final BitSet pathNodes;
+
+
+   Seam(BitSet edgeNodes, BitSet pathNodes)
+   {
+      this.edgeNodes = edgeNodes;
+      this.pathNodes = pathNodes;
+   }
+
+
+   BitSet getEdgeNodes()
+   {
+      return edgeNodes;
+   }
+
+
+   BitSet getPathNodes()
+   {
+      return pathNodes;
+   }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.util.BitSet;
+
+
+/**
+ * Available implementations to find the lowest cost path within an area graph.
+ *
+ * @author agent
+ */
+public enum SeamEngine
+{
+   /**
+    * Dijkstra on the implicit pixel grid using a binary heap.
+    */
+   GRID
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return GridSeamGraph.acquire(topology, this, corridor);
+      }
+   },
+
+   /**
+    * Dijkstra on the implicit pixel grid using a bucket queue. Edge weights are rounded to integers.
+    */
+   GRID_BUCKET
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return GridSeamGraph.acquire(topology, this, corridor);
+      }
+   },
+
+   /**
+    * Dynamic programming on the implicit pixel grid. Only finds seams that never turn back towards the first corner,
+    * which is all the cut per column of {@link BaseAreaGraph} uses anyway, but is much faster than Dijkstra.
+    */
+   MONOTONE
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return GridSeamGraph.acquire(topology, this, corridor);
+      }
+   },
+
+   /**
+    * Coarse-to-fine search for large tiles. The seam is first found on tiles of half the resolution (recursively),
+    * then Dijkstra only searches a narrow corridor around the upsampled coarse seam.
+    */
+   MULTIRESOLUTION
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return GridSeamGraph.acquire(topology, this, corridor);
+      }
+   },
+
+   /**
+    * True s-t minimum cut (Boykov-Kolmogorov max-flow) instead of a path. The cut decides directly which pixels are
+    * taken from the edge tile and may run in any shape, not only from corner to corner.
+    */
+   MIN_CUT
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return MinCutGraph.acquire(topology);
+      }
+   },
+
+   /**
+    * JGraphT Dijkstra-Implementation. Reference only, it is by far the slowest engine.
+    */
+   JGRAPHT
+   {
+      @Override
+      SeamGraph createGraph(PixelTopology topology, BitSet corridor)
+      {
+         return new JGraphTSeamGraph(corridor);
+      }
+   };
+
+
+   /**
+    * @param corridor
+    *           Nodes the graph is restricted to, null for the whole area.
+    * @return An empty graph for one area of a tile.
+    */
+   abstract SeamGraph createGraph(PixelTopology topology, BitSet corridor);
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Command line benchmark of the {@link SeamEngine}s. Merges the same pairs of edge and sample tiles with every engine
+ * and prints the time per tile together with the number of pixels that differ from the result of {@link SeamEngine#GRID}.
+ * <p>
+ * Usage: SeamEngineBenchmark &lt;image&gt; [tileResolution ...]
+ *
+ * @author agent
+ */
+public final class SeamEngineBenchmark
+{
+   // Pairs of edge and sample tiles per resolution
+   private final static int TILE_COUNT = 4;
+   // Each engine is timed this many times, the fastest run counts
+   private final static int REPETITIONS = 3;
+   // JGraphT takes too long for bigger tiles
+   private final static int MAX_JGRAPHT_RESOLUTION = 256;
+
+
+   private SeamEngineBenchmark()
+   {
+      // static only
+   }
+
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length == 0)
+      {
+         System.out.println("Usage: SeamEngineBenchmark <image> [tileResolution ...]");
+         return;
+      }
+
+      BufferedImage inputImage = ImageIO.read(new File(args[0]));
+      List<Integer> tileResolutions = new ArrayList<Integer>();
+      for (int i = 1; i < args.length; i++)
+      {
+         tileResolutions.add(Integer.parseInt(args[i]));
+      }
+      if (tileResolutions.isEmpty())
+      {
+         tileResolutions.add(128);
+         tileResolutions.add(256);
+         tileResolutions.add(512);
+      }
+
+      for (int tileResolution : tileResolutions)
+      {
+         benchmark(inputImage, tileResolution);
+      }
+   }
+
+
+   private static void benchmark(BufferedImage inputImage, int tileResolution)
+   {
+      // Samples need to fit into the input image
+      if (inputImage.getWidth() < tileResolution || inputImage.getHeight() < tileResolution)
+      {
+         BufferedImage scaledImage = new BufferedImage(2 * tileResolution, 2 * tileResolution, BufferedImage.TYPE_INT_ARGB);
+         scaledImage.getGraphics().drawImage(inputImage, 0, 0, 2 * tileResolution, 2 * tileResolution, null);
+         inputImage = scaledImage;
+      }
+      List<BufferedImage> edgeTiles = ImageUtil.generateSamples(inputImage, tileResolution, TILE_COUNT);
+      List<BufferedImage> sampleTiles = ImageUtil.generateSamples(inputImage, tileResolution, TILE_COUNT);
+      PixelTopology topology = PixelTopology.forResolution(tileResolution);
+
+      System.out.println("Tile resolution " + tileResolution);
+      int[][] referencePixels = null;
+      for (SeamEngine seamEngine : SeamEngine.values())
+      {
+         if (seamEngine == SeamEngine.JGRAPHT && tileResolution > MAX_JGRAPHT_RESOLUTION)
+         {
+            continue;
+         }
+
+         BaseAreaGraph[] areaGraphs = new BaseAreaGraph[] { new TopAreaGraph(topology, seamEngine),
+            new RightAreaGraph(topology, seamEngine), new BottomAreaGraph(topology, seamEngine),
+            new LeftAreaGraph(topology, seamEngine) };
+
+         int[][] pixels = new int[TILE_COUNT][tileResolution * tileResolution];
+         long bestTime = Long.MAX_VALUE;
+         for (int repetition = 0; repetition < REPETITIONS; repetition++)
+         {
+            long startTime = System.nanoTime();
+            for (int i = 0; i < TILE_COUNT; i++)
+            {
+               int[] edgePixels = ImageUtil.getPixels(edgeTiles.get(i));
+               int[] samplePixels = ImageUtil.getPixels(sampleTiles.get(i));
+               CostField costField = new CostField(topology, edgeTiles.get(i), sampleTiles.get(i));
+               for (BaseAreaGraph areaGraph : areaGraphs)
+               {
+                  areaGraph.execute(pixels[i], edgePixels, samplePixels, costField);
+               }
+            }
+            bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+         }
+
+         if (referencePixels == null)
+         {
+            referencePixels = pixels;
+         }
+         int differingPixels = 0;
+         for (int i = 0; i < TILE_COUNT; i++)
+         {
+            for (int j = 0; j < pixels[i].length; j++)
+            {
+               if (pixels[i][j] != referencePixels[i][j])
+               {
+                  differingPixels++;
+               }
+            }
+         }
+
+         System.out.println(String.format("   %-16s %9.1f ms/tile %9d px differ from %s", seamEngine, bestTime / 1e6 / TILE_COUNT, differingPixels,
+            SeamEngine.GRID));
+      }
+   }
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+/**
+ * Weighted, undirected pixel graph of one triangle area, as built by {@link BaseAreaGraph#generate}.
+ * Implementations decide how the edges are stored and how the lowest cost path is found.
+ *
+ * @author agent
+ */
+public interface SeamGraph
+{
+   /**
+    * @return false, if an edge between source and target would be ignored. Saves calculating its weight.
+    */
+   boolean accepts(int source, int target);
+
+
+   /**
+    * Adds an edge between two adjacent nodes of the {@link PixelTopology}.
+    */
+   void addEdge(int source, int target, double weight);
+
+
+   /**
+    * Finds the lowest cost path between source and target.
+    *
+    * @return All nodes that lie on the path, in no particular order. Empty, if there is no path.
+    */
+   int[] findLowestCostPath(int source, int target);
+}
@@ -11,9 +11,11 @@
 package edu.logic.util;
 
 import java.awt.Color;
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Random;
 
@@ -32,6 +34,9 @@ public class ImageUtil
    public final static int BOTTOM_AREA_INDEX = 2;
    public final static int LEFT_AREA_INDEX = 3;
 
+   // Marks the images of this class: their pixels are opaque packed ints (TYPE_INT_ARGB) in a raster of their own
+   private final static String OPAQUE_PROPERTY = "edu.logic.util.ImageUtil.opaque";
+
 
    private ImageUtil()
    {
@@ -54,6 +59,8 @@ public class ImageUtil
    {
       Random rand = new Random();
 
+      // Convert once, so that every crop can copy whole rows
+      inputImage = toIntArgb(inputImage);
       List<BufferedImage> subImages = new ArrayList<BufferedImage>();
 
       for (int i = 0; i < sampleCount; i++)
@@ -61,7 +68,7 @@ public class ImageUtil
          int x = rand.nextInt(inputImage.getWidth() - tileResolution + 1);
          int y = rand.nextInt(inputImage.getHeight() - tileResolution + 1);
 
-         subImages.add(ImageUtil.crop(inputImage, x, y, tileResolution, tileResolution));
+         subImages.add(cropRows(inputImage, x, y, tileResolution, tileResolution));
       }
 
       return subImages;
@@ -74,22 +81,20 @@ public class ImageUtil
     */
    public static BufferedImage moveUpHalfway(BufferedImage inputImage)
    {
-      Graphics inputGraphic = inputImage.getGraphics();
-      int resolution = inputImage.getHeight();
-      int offset = resolution / 2;
+      inputImage = toIntArgb(inputImage);
+      int[] pixels = getData(inputImage);
+      int width = inputImage.getWidth();
+      int offset = inputImage.getHeight() / 2;
 
+      // Swap the rows of the upper half with those of the lower half
+      int[] row = new int[width];
       for (int y = 0; y < offset; y++)
       {
-         for (int x = 0; x < resolution; x++)
-         {
-            Color topColor = new Color(inputImage.getRGB(x, y));
-            Color bottomColor = new Color(inputImage.getRGB(x, y + offset));
-
-            inputGraphic.setColor(topColor);
-            inputGraphic.drawLine(x, y + offset, x, y + offset);
-            inputGraphic.setColor(bottomColor);
-            inputGraphic.drawLine(x, y, x, y);
-         }
+         int top = y * width;
+         int bottom = (y + offset) * width;
+         System.arraycopy(pixels, top, row, 0, width);
+         System.arraycopy(pixels, bottom, pixels, top, width);
+         System.arraycopy(row, 0, pixels, bottom, width);
       }
       return inputImage;
    }
@@ -101,24 +106,122 @@ public class ImageUtil
     */
    public static BufferedImage moveRightHalfway(BufferedImage inputImage)
    {
-      Graphics inputGraphic = inputImage.getGraphics();
-      int resolution = inputImage.getHeight();
-      int offset = resolution / 2;
+      inputImage = toIntArgb(inputImage);
+      int[] pixels = getData(inputImage);
+      int width = inputImage.getWidth();
+      int offset = inputImage.getHeight() / 2;
+
+      // Swap the left half of each row with its right half
+      int[] halfRow = new int[offset];
+      for (int y = 0; y < inputImage.getHeight(); y++)
+      {
+         int left = y * width;
+         System.arraycopy(pixels, left, halfRow, 0, offset);
+         System.arraycopy(pixels, left + offset, pixels, left, offset);
+         System.arraycopy(halfRow, 0, pixels, left + offset, offset);
+      }
+      return inputImage;
+   }
+
+
+   /**
+    * Returns a copy of inputImage with half its width and height. Each pixel is the average of 2x2 pixels of the input.
+    */
+   public static BufferedImage scaleDownHalf(BufferedImage inputImage)
+   {
+      int width = inputImage.getWidth() / 2;
+      int height = inputImage.getHeight() / 2;
+      inputImage = toIntArgb(inputImage);
+      int[] inputPixels = getData(inputImage);
+      int inputWidth = inputImage.getWidth();
+      BufferedImage returnImage = createOpaqueImage(width, height);
+      int[] pixels = getData(returnImage);
 
-      for (int y = 0; y < resolution; y++)
+      for (int y = 0; y < height; y++)
       {
-         for (int x = 0; x < offset; x++)
+         for (int x = 0; x < width; x++)
          {
-            Color leftColor = new Color(inputImage.getRGB(x, y));
-            Color rightColor = new Color(inputImage.getRGB(x + offset, y));
+            int topLeft = (2 * y) * inputWidth + 2 * x;
+            int bottomLeft = topLeft + inputWidth;
+            int a = inputPixels[topLeft], b = inputPixels[topLeft + 1], c = inputPixels[bottomLeft], d = inputPixels[bottomLeft + 1];
 
-            inputGraphic.setColor(leftColor);
-            inputGraphic.drawLine(x + offset, y, x + offset, y);
-            inputGraphic.setColor(rightColor);
-            inputGraphic.drawLine(x, y, x, y);
+            int red = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF) + ((c >> 16) & 0xFF) + ((d >> 16) & 0xFF)) / 4;
+            int green = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF) + ((c >> 8) & 0xFF) + ((d >> 8) & 0xFF)) / 4;
+            int blue = ((a & 0xFF) + (b & 0xFF) + (c & 0xFF) + (d & 0xFF)) / 4;
+            pixels[y * width + x] = 0xFF000000 | red << 16 | green << 8 | blue;
          }
       }
-      return inputImage;
+      return returnImage;
+   }
+
+
+   /**
+    * Returns the pixels of inputImage as packed rgb values in row major order. Like {@link Color#Color(int)}, the alpha
+    * channel is ignored, all pixels are opaque.
+    */
+   public static int[] getPixels(BufferedImage inputImage)
+   {
+      BufferedImage image = toIntArgb(inputImage);
+      return image == inputImage ? getData(image).clone() : getData(image);
+   }
+
+
+   /**
+    * Creates an image from opaque packed rgb values in row major order, as returned by {@link #getPixels}.
+    */
+   public static BufferedImage createImage(int[] pixels, int width, int height)
+   {
+      BufferedImage returnImage = createOpaqueImage(width, height);
+      System.arraycopy(pixels, 0, getData(returnImage), 0, width * height);
+      return returnImage;
+   }
+
+
+   /**
+    * Returns inputImage, if it has been created by this class, so that its pixels are known to be stored as opaque packed
+    * ints (TYPE_INT_ARGB) in a raster of its own. Otherwise returns such a copy of it. Like {@link Color#Color(int)}, the
+    * alpha channel is ignored. Every image returned by this class passes unchanged without looking at its pixels, so the
+    * conversion happens once, when an image enters.
+    */
+   public static BufferedImage toIntArgb(BufferedImage inputImage)
+   {
+      // A sub image inherits the property, but shares the raster of its parent
+      if (Boolean.TRUE.equals(inputImage.getProperty(OPAQUE_PROPERTY)) && inputImage.getRaster().getParent() == null)
+      {
+         return inputImage;
+      }
+
+      int width = inputImage.getWidth();
+      int height = inputImage.getHeight();
+      BufferedImage returnImage = createOpaqueImage(width, height);
+      int[] pixels = getData(returnImage);
+      inputImage.getRGB(0, 0, width, height, pixels, 0, width);
+      for (int i = 0; i < pixels.length; i++)
+      {
+         pixels[i] |= 0xFF000000;
+      }
+      return returnImage;
+   }
+
+
+   /**
+    * @return A new image of TYPE_INT_ARGB, marked as image of this class. Its pixels must be kept opaque.
+    */
+   private static BufferedImage createOpaqueImage(int width, int height)
+   {
+      ColorModel colorModel = ColorModel.getRGBdefault();
+      Hashtable<String, Object> properties = new Hashtable<String, Object>();
+      properties.put(OPAQUE_PROPERTY, Boolean.TRUE);
+      return new BufferedImage(colorModel, colorModel.createCompatibleWritableRaster(width, height), false, properties);
+   }
+
+
+   /**
+    * @return The pixel array backing an image of TYPE_INT_ARGB. Writes to it change the image.
+    */
+   private static int[] getData(BufferedImage image)
+   {
+      return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
    }
 
 
@@ -216,16 +319,22 @@ public class ImageUtil
     */
    public static BufferedImage crop(BufferedImage src, int x, int y, int width, int height)
    {
-      BufferedImage returnImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-      Graphics returnGraphics = returnImage.createGraphics();
+      return cropRows(toIntArgb(src), x, y, width, height);
+   }
+
+
+   /**
+    * Same as {@link #crop}, for an image returned by {@link #toIntArgb}. Copies the sub image row by row.
+    */
+   private static BufferedImage cropRows(BufferedImage src, int x, int y, int width, int height)
+   {
+      int[] srcPixels = getData(src);
+      BufferedImage returnImage = createOpaqueImage(width, height);
+      int[] pixels = getData(returnImage);
 
       for (int i = 0; i < height; i++)
       {
-         for (int j = 0; j < width; j++)
-         {
-            returnGraphics.setColor(new Color(src.getRGB(x + j, y + i)));
-            returnGraphics.drawLine(j, i, j, i);
-         }
+         System.arraycopy(srcPixels, (y + i) * src.getWidth() + x, pixels, i * width, width);
       }
       return returnImage;
    }
@@ -14,12 +14,16 @@ import java.awt.Graphics;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
@@ -30,11 +34,14 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
 import javax.swing.border.CompoundBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 import edu.logic.StrictWangTileGenerator;
+import edu.logic.TileMapGenerator;
 
 
 
@@ -71,8 +78,12 @@ public class ApplicationWindow extends JFrame implements ActionListener
    private JLabel tileSizeLabel;
    // Tile size combobox
    private JComboBox<String> tileSizeComboBox;
-   // Button that starts tile generation process
+   // Button that starts tile generation process, cancels it while it runs
    private JButton tilingStartButton;
+   // Progress of the tile generation process
+   private JProgressBar generationProgressBar;
+   // The running tile generation process, null if none
+   private GenerationWorker generationWorker;
    // Pack tiles and save - button
    private JButton savePackedButton;
    // Save individual tiles - button
@@ -169,6 +180,12 @@ public class ApplicationWindow extends JFrame implements ActionListener
       tilingStartButton.setEnabled(false);
       add(tilingStartButton);
 
+      // Tiling generation progress
+      generationProgressBar = new JProgressBar(0, 100);
+      generationProgressBar.setBounds(20, 264, 190, 16);
+      generationProgressBar.setVisible(false);
+      add(generationProgressBar);
+
       // tile panels
       tilePanels = new ArrayList<ImagePanel>();
       for (int y = 0; y < 4; y++)
@@ -234,13 +251,15 @@ public class ApplicationWindow extends JFrame implements ActionListener
       }
       else if (e.getSource() == tilingStartButton) // If "Generate Wang tiles" button has been clicked
       {
-         generateWangTiles();
-
-         saveButton.setEnabled(true);
-         savePackedButton.setEnabled(true);
-         sampleTextureButton.setEnabled(true);
-
-         generateSampleTexture();
+         if (generationWorker != null)
+         {
+            // Button shows "Cancel" while generating
+            generationWorker.cancel(true);
+         }
+         else
+         {
+            generateWangTiles();
+         }
       }
       else if (e.getSource() == numberTilesComboBox)
       {
@@ -426,14 +445,79 @@ public class ApplicationWindow extends JFrame implements ActionListener
       }
       else
       {
-         // Wang generation
-         new StrictWangTileGenerator(this, inputImage, numberOfTiles, tileResolution).generate();
+         // Wang generation in the background, the tiles show up as soon as they are done
+         saveButton.setEnabled(false);
+         savePackedButton.setEnabled(false);
+         sampleTextureButton.setEnabled(false);
+         setGenerating(true);
+
+         generationWorker = new GenerationWorker(inputImage, numberOfTiles, tileResolution);
+         generationWorker.addPropertyChangeListener(new PropertyChangeListener()
+         {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt)
+            {
+               if ("progress".equals(evt.getPropertyName()))
+               {
+                  generationProgressBar.setValue((Integer) evt.getNewValue());
+               }
+            }
+         });
+         generationWorker.execute();
+      }
+   }
+
+
+   /**
+    * Switches the controls between generating and idle state.
+    */
+   private void setGenerating(boolean generating)
+   {
+      tilingStartButton.setText(generating ? "Cancel" : "Generate Wang tiles");
+      imageFileChooserButton.setEnabled(!generating);
+      numberTilesComboBox.setEnabled(!generating);
+      tileSizeComboBox.setEnabled(!generating);
+      generationProgressBar.setValue(0);
+      generationProgressBar.setVisible(generating);
+   }
+
+
+   /**
+    * Called on the event dispatch thread, after the generation has finished, failed or has been cancelled.
+    */
+   private void generationDone(GenerationWorker worker)
+   {
+      generationWorker = null;
+      setGenerating(false);
+      if (worker.isCancelled())
+      {
+         return;
+      }
+
+      try
+      {
+         worker.get();
+      }
+      catch (InterruptedException | CancellationException e)
+      {
+         return;
       }
+      catch (ExecutionException e)
+      {
+         handleException((Exception) e.getCause());
+         return;
+      }
+
+      saveButton.setEnabled(true);
+      savePackedButton.setEnabled(true);
+      sampleTextureButton.setEnabled(true);
+
+      generateSampleTexture();
    }
 
 
    /**
-    * Set image for panel -> Return methode of asynchronous call.
+    * Set image for panel -> Return methode of asynchronous call. Must be called on the event dispatch thread.
     */
    public void setImage(BufferedImage image, int iteration)
    {
@@ -450,7 +534,7 @@ public class ApplicationWindow extends JFrame implements ActionListener
       }
       ImagePanel panel = tilePanels.get(iteration);
       panel.setImage(image);
-      panel.paintComponent(panel.getGraphics());
+      panel.repaint();
    }
 
 
@@ -580,7 +664,8 @@ public class ApplicationWindow extends JFrame implements ActionListener
     */
    private void generateSampleTexture()
    {
-      int[] indices = getOrdering();
+      short[] indices = new TileMapGenerator(numberOfTiles).generate(4, 6, new Random().nextLong());
+      List<ImagePanel> helperRef = numberOfTiles == 4 ? Arrays.asList(tilePanels.get(1), tilePanels.get(2), tilePanels.get(5), tilePanels.get(6)) : tilePanels;
 
       BufferedImage packedImage = new BufferedImage(tileResolution * 4, tileResolution * 6, BufferedImage.TYPE_INT_ARGB);
       Graphics returnGraphics = packedImage.createGraphics();
@@ -589,7 +674,7 @@ public class ApplicationWindow extends JFrame implements ActionListener
       {
          for (int x = 0; x < 4; x++)
          {
-            BufferedImage tile = tilePanels.get(indices[y * 4 + x]).getImage();
+            BufferedImage tile = helperRef.get(indices[y * 4 + x]).getImage();
             returnGraphics.drawImage(tile, tileResolution * x, tileResolution * y, tileResolution, tileResolution, null);
          }
       }
@@ -598,202 +683,103 @@ public class ApplicationWindow extends JFrame implements ActionListener
 
 
    /**
-    * Generates a sequence of indices pointing to respective tile.
+    * Helper Methode to convert an index to the respectiv color.
     */
-   private int[] getOrdering()
+   private Color toColor(int idx)
    {
-      Random rand = new Random();
-
-      List<List<Integer>> colorList = getColorLists();
-      List<Integer> yellowTop = colorList.get(0);
-      List<Integer> blueTop = colorList.get(1);
-      List<Integer> greenRight = colorList.get(2);
-      List<Integer> redRight = colorList.get(3);
-      List<Integer> blueBottom = colorList.get(4);
-      List<Integer> yellowBottom = colorList.get(5);
-      List<Integer> redLeft = colorList.get(6);
-      List<Integer> greenLeft = colorList.get(7);
-      List<Integer> yellowTopGreenLeft = colorList.get(8);
-      List<Integer> blueTopGreenLeft = colorList.get(9);
-      List<Integer> yellowTopRedLeft = colorList.get(10);
-      List<Integer> blueTopRedLeft = colorList.get(11);
-
-      List<Integer> indices = new ArrayList<Integer>(4 * 6);
-      for (int y = 0; y < 6; y++)
-      {
-         for (int x = 0; x < 4; x++)
-         {
-            if (y == 0)
-            {
-               if (x == 0)
-               {
-                  indices.add(yellowTop.get(rand.nextInt(yellowTop.size())));
-               }
-               else
-               {
-                  Integer leftTile = indices.get(indices.size() - 1);
-                  if (greenRight.contains(leftTile))
-                  {
-                     indices.add(greenLeft.get(rand.nextInt(greenLeft.size())));
-                  }
-                  else if (redRight.contains(leftTile))
-                  {
-                     indices.add(redLeft.get(rand.nextInt(redLeft.size())));
-                  }
-                  else
-                  {
-                     handleException("An index error occured while trying to generate a sample texture.");
-                  }
-               }
-            }
-            else
-            {
-               Integer topTile = indices.get((y - 1) * 4 + x);
-               Integer leftTile = indices.get(indices.size() - 1);
-
-               if (x == 0)
-               {
-                  if (yellowBottom.contains(topTile))
-                  {
-                     indices.add(yellowTop.get(rand.nextInt(yellowTop.size())));
-                  }
-                  else if (blueBottom.contains(topTile))
-                  {
-                     indices.add(blueTop.get(rand.nextInt(blueTop.size())));
-                  }
-                  else
-                  {
-                     handleException("An index error occured while trying to generate a sample texture.");
-                  }
-               }
-               else
-               {
-                  if (greenRight.contains(leftTile))
-                  {
-                     if (yellowBottom.contains(topTile))
-                     {
-                        indices.add(yellowTopGreenLeft.get(rand.nextInt(yellowTopGreenLeft.size())));
-                     }
-                     else if (blueBottom.contains(topTile))
-                     {
-                        indices.add(blueTopGreenLeft.get(rand.nextInt(blueTopGreenLeft.size())));
-                     }
-                     else
-                     {
-                        handleException("An index error occured while trying to generate a sample texture.");
-                     }
-                  }
-                  else if (redRight.contains(leftTile))
-                  {
-                     if (yellowBottom.contains(topTile))
-                     {
-                        indices.add(yellowTopRedLeft.get(rand.nextInt(yellowTopRedLeft.size())));
-                     }
-                     else if (blueBottom.contains(topTile))
-                     {
-                        indices.add(blueTopRedLeft.get(rand.nextInt(blueTopRedLeft.size())));
-                     }
-                     else
-                     {
-                        handleException("An index error occured while trying to generate a sample texture.");
-                     }
-                  }
-                  else
-                  {
-                     handleException("An index error occured while trying to generate a sample texture.");
-                  }
-               }
-            }
-         }
-      }
-      int[] results = new int[indices.size()];
-      int idx = 0;
-      for (int i : indices)
+      switch (idx)
       {
-         results[idx++] = i;
+         case 0:
+            return new Color(196, 163, 0); // Dark Yellow
+         case 1:
+            return new Color(0, 127, 14); // Dark Green
+         case 2:
+            return new Color(0, 74, 127); // Steel Blue
+         case 3:
+            return new Color(120, 0, 0); // Dark Red
       }
-      return results;
+      return null;
    }
 
 
    /**
-    * Returns a List of list of indices of colors.
+    * Runs {@link StrictWangTileGenerator} off the event dispatch thread. Hands each tile to its panel as soon as it is
+    * done and reports the progress. Cancelling interrupts the seam searches in progress.
     */
-   public List<List<Integer>> getColorLists()
+   private final class GenerationWorker extends SwingWorker<Void, GeneratedTile>
    {
-      List<Integer> yellowTop = null, blueTop = null, greenRight = null, redRight = null, blueBottom = null, yellowBottom = null, redLeft = null, greenLeft = null, yellowTopGreenLeft = null, blueTopGreenLeft = null, yellowTopRedLeft = null, blueTopRedLeft = null;
+      private final BufferedImage inputImage;
+      private final int numberOfTiles;
+      private final int tileResolution;
 
-      if (numberOfTiles == 4)
+
+      GenerationWorker(BufferedImage inputImage, int numberOfTiles, int tileResolution)
       {
-         yellowTop = Arrays.asList(1, 2);
-         blueTop = Arrays.asList(5, 6);
-         greenRight = Arrays.asList(1, 5, 6);
-         redRight = Arrays.asList(2);
-         blueBottom = Arrays.asList(1, 2, 6);
-         yellowBottom = Arrays.asList(5);
-         redLeft = Arrays.asList(1, 5);
-         greenLeft = Arrays.asList(2, 6);
-         yellowTopGreenLeft = Arrays.asList(2);
-         blueTopGreenLeft = Arrays.asList(6);
-         yellowTopRedLeft = Arrays.asList(1);
-         blueTopRedLeft = Arrays.asList(5);
+         this.inputImage = inputImage;
+         this.numberOfTiles = numberOfTiles;
+         this.tileResolution = tileResolution;
       }
-      else if (numberOfTiles == 8)
+
+
+      @Override
+      protected Void doInBackground() throws Exception
       {
-         yellowTop = Arrays.asList(0, 2, 4, 6);
-         blueTop = Arrays.asList(1, 3, 5, 7);
-         greenRight = Arrays.asList(0, 2, 5, 7);
-         redRight = Arrays.asList(1, 3, 4, 6);
-         blueBottom = Arrays.asList(0, 1, 4, 5);
-         yellowBottom = Arrays.asList(2, 3, 6, 7);
-         redLeft = Arrays.asList(0, 1, 6, 7);
-         greenLeft = Arrays.asList(2, 3, 4, 5);
-         yellowTopGreenLeft = Arrays.asList(2, 4);
-         blueTopGreenLeft = Arrays.asList(3, 5);
-         yellowTopRedLeft = Arrays.asList(0, 6);
-         blueTopRedLeft = Arrays.asList(1, 7);
+         StrictWangTileGenerator generator = new StrictWangTileGenerator(inputImage, numberOfTiles, tileResolution);
+         generator.generate(new StrictWangTileGenerator.TileListener()
+         {
+            // Number of tiles done so far
+            private int generatedTiles;
+
+
+            @Override
+            public void tileGenerated(BufferedImage tile, int iteration)
+            {
+               publish(new GeneratedTile(tile, iteration));
+               // Property changes are coalesced, the progress bar is updated at most once per event cycle
+               setProgress(100 * ++generatedTiles / numberOfTiles);
+            }
+         });
+         return null;
       }
-      else if (numberOfTiles == 16)
+
+
+      @Override
+      protected void process(List<GeneratedTile> generatedTiles)
       {
-         yellowTop = Arrays.asList(0, 1, 2, 3, 12, 13, 14, 15);
-         blueTop = Arrays.asList(4, 5, 6, 7, 8, 9, 10, 11);
-         greenRight = Arrays.asList(1, 2, 5, 6, 9, 10, 13, 14);
-         redRight = Arrays.asList(0, 3, 4, 7, 8, 11, 12, 15);
-         blueBottom = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7);
-         yellowBottom = Arrays.asList(8, 9, 10, 11, 12, 13, 14, 15);
-         redLeft = Arrays.asList(0, 1, 4, 5, 8, 9, 12, 13);
-         greenLeft = Arrays.asList(2, 3, 6, 7, 10, 11, 14, 15);
-         yellowTopGreenLeft = Arrays.asList(2, 3, 14, 15);
-         blueTopGreenLeft = Arrays.asList(6, 7, 10, 11);
-         yellowTopRedLeft = Arrays.asList(0, 1, 12, 13);
-         blueTopRedLeft = Arrays.asList(4, 5, 8, 9);
+         // Tiles still in transit, when the generation has been cancelled, are dropped
+         if (isCancelled())
+         {
+            return;
+         }
+         // Several tiles may arrive at once, if the event dispatch thread is busy
+         for (GeneratedTile generatedTile : generatedTiles)
+         {
+            setImage(generatedTile.tile, generatedTile.iteration);
+         }
       }
-      else
+
+
+      @Override
+      protected void done()
       {
-         handleException(new IllegalArgumentException());
+         generationDone(this);
       }
-      return Arrays.asList(yellowTop, blueTop, greenRight, redRight,
-                           blueBottom, yellowBottom, redLeft, greenLeft,
-                           yellowTopGreenLeft, blueTopGreenLeft, yellowTopRedLeft, blueTopRedLeft);
    }
 
 
    /**
-    * Helper Methode to convert an index to the respectiv color.
+    * A tile handed from the {@link GenerationWorker} to the event dispatch thread.
     */
-   private Color toColor(int idx)
+   private final static class GeneratedTile
    {
-      switch (idx)
+      private final BufferedImage tile;
+      private final int iteration;
+
+
+      GeneratedTile(BufferedImage tile, int iteration)
       {
-         case 0:
-            return new Color(196, 163, 0); // Dark Yellow
-         case 1:
-            return new Color(0, 127, 14); // Dark Green
-         case 2:
-            return new Color(0, 74, 127); // Steel Blue
-         case 3:
-            return new Color(120, 0, 0); // Dark Red
+         this.tile = tile;
+         this.iteration = iteration;
       }
-      return null;
    }
 }
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.logic.graphs.SeamEngine;
+
+
+/**
+ * @author agent
+ */
+public class AdmissionSchedulerTest
+{
+   private final static int BUDGET = 100;
+
+   private final AdmissionScheduler scheduler = new AdmissionScheduler(BUDGET);
+
+
+   @After
+   public void closeScheduler()
+   {
+      scheduler.close();
+   }
+
+
+   @Test
+   public void waitingJobsStartByPriorityThenArrival() throws Exception
+   {
+      final List<String> admitted = Collections.synchronizedList(new ArrayList<String>());
+      AdmissionScheduler.Ticket blocking = scheduler.admit(BUDGET, 0);
+
+      List<FutureTask<AdmissionScheduler.Ticket>> jobs = new ArrayList<FutureTask<AdmissionScheduler.Ticket>>();
+      String[] names = { "first low", "second low", "high" };
+      int[] priorities = { 0, 0, 1 };
+      for (int i = 0; i < names.length; i++)
+      {
+         final String name = names[i];
+         final int priority = priorities[i];
+         jobs.add(start(new Callable<AdmissionScheduler.Ticket>()
+         {
+            @Override
+            public AdmissionScheduler.Ticket call() throws Exception
+            {
+               AdmissionScheduler.Ticket ticket = scheduler.admit(BUDGET, priority);
+               admitted.add(name);
+               ticket.close();
+               return ticket;
+            }
+         }));
+         // Fixes the order of arrival
+         awaitWaitingJobs(i + 1);
+      }
+
+      blocking.close();
+      for (FutureTask<AdmissionScheduler.Ticket> job : jobs)
+      {
+         job.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(Arrays.asList("high", "first low", "second low"), admitted);
+   }
+
+
+   @Test
+   public void jobWaitsUntilItFitsIntoTheBudget() throws Exception
+   {
+      AdmissionScheduler.Ticket first = scheduler.admit(60, 0);
+      FutureTask<AdmissionScheduler.Ticket> second = admitLater(60, null, 0, 0);
+      awaitWaitingJobs(1);
+      assertFalse(second.isDone());
+      assertEquals(60, scheduler.getAdmittedFootprint());
+
+      first.close();
+      second.get(10, TimeUnit.SECONDS).close();
+      assertEquals(0, scheduler.getAdmittedFootprint());
+   }
+
+
+   @Test
+   public void jobLargerThanTheBudgetRunsAlone() throws Exception
+   {
+      AdmissionScheduler.Ticket large = scheduler.admit(10 * BUDGET, 0);
+      assertEquals(1, scheduler.getRunningJobs());
+
+      FutureTask<AdmissionScheduler.Ticket> small = admitLater(1, null, 0, 0);
+      awaitWaitingJobs(1);
+      large.close();
+      small.get(10, TimeUnit.SECONDS).close();
+   }
+
+
+   @Test
+   public void scratchOfThePoolIsCountedOnce() throws Exception
+   {
+      // The grid engines share their scratch graphs, so 20 + 30 + 50 fill the budget exactly
+      AdmissionScheduler.Ticket grid = scheduler.admit(20, SeamEngine.GRID, 50, 0);
+      admitLater(30, SeamEngine.MONOTONE, 50, 0).get(10, TimeUnit.SECONDS).close();
+
+      // Jobs without scratch are not charged for it
+      AdmissionScheduler.Ticket plain = admitLater(30, null, 0, 0).get(10, TimeUnit.SECONDS);
+      assertEquals(2, scheduler.getRunningJobs());
+
+      // The min-cut engine keeps scratch graphs of its own
+      FutureTask<AdmissionScheduler.Ticket> minCut = admitLater(0, SeamEngine.MIN_CUT, 1, 0);
+      awaitWaitingJobs(1);
+      plain.close();
+      minCut.get(10, TimeUnit.SECONDS).close();
+      grid.close();
+   }
+
+
+   private FutureTask<AdmissionScheduler.Ticket> admitLater(final long estimatedFootprint, final SeamEngine seamEngine,
+      final long threadScratch, final int priority)
+   {
+      return start(new Callable<AdmissionScheduler.Ticket>()
+      {
+         @Override
+         public AdmissionScheduler.Ticket call() throws Exception
+         {
+            if (seamEngine == null)
+            {
+               return scheduler.admit(estimatedFootprint, priority);
+            }
+            return scheduler.admit(estimatedFootprint, seamEngine, threadScratch, priority);
+         }
+      });
+   }
+
+
+   private static FutureTask<AdmissionScheduler.Ticket> start(Callable<AdmissionScheduler.Ticket> callable)
+   {
+      FutureTask<AdmissionScheduler.Ticket> task = new FutureTask<AdmissionScheduler.Ticket>(callable);
+      Thread thread = new Thread(task);
+      thread.setDaemon(true);
+      thread.start();
+      return task;
+   }
+
+
+   private void awaitWaitingJobs(int waitingJobs) throws InterruptedException
+   {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (scheduler.getWaitingJobs() != waitingJobs)
+      {
+         if (System.nanoTime() > deadline)
+         {
+            throw new AssertionError("Expected " + waitingJobs + " waiting jobs, got " + scheduler.getWaitingJobs() + ".");
+         }
+         Thread.sleep(1);
+      }
+   }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Runs the workers as separate JVMs.
+ *
+ * @author agent
+ */
+public class DistributedTileGeneratorTest
+{
+   private final static int NUMBER_OF_TILES = 8;
+   private final static int TILE_RESOLUTION = 16;
+   private final static String MARKER_PROPERTY = "edu.logic.DyingTileWorker.marker";
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+   /**
+    * The first worker to start dies, as soon as it receives its first tile. The others work like {@link TileWorker}.
+    */
+   public final static class DyingTileWorker
+   {
+      public static void main(String[] args) throws IOException
+      {
+         if (!new File(System.getProperty(MARKER_PROPERTY)).createNewFile())
+         {
+            TileWorker.main(args);
+            return;
+         }
+         try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0])))
+         {
+            new DataInputStream(socket.getInputStream()).readInt();
+            Runtime.getRuntime().halt(1);
+         }
+      }
+   }
+
+
+   @Test
+   public void tilesOfADeadWorkerAreRetried() throws Exception
+   {
+      File marker = new File(temporaryFolder.getRoot(), "died");
+      DistributedTileGenerator generator = new DistributedTileGenerator(TextureWriterTest.createTiles(1, 4 * TILE_RESOLUTION, 1)[0],
+         NUMBER_OF_TILES, TILE_RESOLUTION, 2);
+      generator.setWorkerClass(DyingTileWorker.class);
+      generator.setWorkerOptions("-D" + MARKER_PROPERTY + "=" + marker.getPath());
+
+      final List<Integer> iterations = new ArrayList<Integer>();
+      generator.generate(new StrictWangTileGenerator.TileListener()
+      {
+         @Override
+         public void tileGenerated(BufferedImage tile, int iteration)
+         {
+            assertEquals(TILE_RESOLUTION, tile.getWidth());
+            iterations.add(iteration);
+         }
+      });
+
+      assertTrue("No worker died.", marker.exists());
+      assertEquals(NUMBER_OF_TILES, iterations.size());
+      for (int i = 0; i < NUMBER_OF_TILES; i++)
+      {
+         assertEquals(i, (int) iterations.get(i));
+      }
+   }
+}
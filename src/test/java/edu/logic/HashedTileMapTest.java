@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+
+/**
+ * @author agent
+ */
+public class HashedTileMapTest
+{
+   private final static int COLUMNS = 300;
+   private final static int ROWS = 200;
+
+
+   @Test
+   public void neighborsMatchEdgeColors()
+   {
+      short[] chunk = new short[COLUMNS * ROWS];
+      // Around the origin, where the hashed positions change sign
+      new HashedTileMap(16, 3).fill(-COLUMNS / 2, -ROWS / 2, COLUMNS, ROWS, chunk);
+      TileMapGeneratorTest.assertEdgeColorsMatch(StrictWangTileGenerator.getEdgeTileIndices(16), chunk, COLUMNS, ROWS);
+   }
+
+
+   @Test
+   public void fillMatchesSingleCells()
+   {
+      HashedTileMap map = new HashedTileMap(16, 11);
+      short[] chunk = new short[COLUMNS * ROWS];
+      int startX = 1 << 30;
+      int startY = -7;
+      map.fill(startX, startY, COLUMNS, ROWS, chunk);
+      for (int y = 0; y < ROWS; y++)
+      {
+         for (int x = 0; x < COLUMNS; x++)
+         {
+            assertEquals(map.getTile(startX + x, startY + y), chunk[y * COLUMNS + x]);
+         }
+      }
+   }
+
+
+   @Test(expected = IllegalArgumentException.class)
+   public void setWithoutAllColorCombinationsIsRejected()
+   {
+      new HashedTileMap(8, 1);
+   }
+}
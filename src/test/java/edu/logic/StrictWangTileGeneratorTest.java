@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.logic.graphs.BaseAreaGraph;
+import edu.logic.graphs.SeamEngine;
+
+
+/**
+ * @author agent
+ */
+public class StrictWangTileGeneratorTest
+{
+   private final static int NUMBER_OF_TILES = 4;
+   private final static int TILE_RESOLUTION = 32;
+
+
+   @Test
+   public void parallelAreasMergeTheSameTile() throws Exception
+   {
+      BufferedImage[] images = TextureWriterTest.createTiles(2, TILE_RESOLUTION, 1);
+      final BufferedImage edgeTile = images[0];
+      final BufferedImage sampleTile = images[1];
+      final List<? extends BaseAreaGraph> graphs = StrictWangTileGenerator.createGraphs(TILE_RESOLUTION, SeamEngine.GRID);
+      int[] sequentialPixels = StrictWangTileGenerator.mergeTile(graphs, edgeTile, sampleTile, false);
+
+      // The areas are forked on the pool of the calling task
+      ForkJoinPool pool = new ForkJoinPool(NUMBER_OF_TILES);
+      try
+      {
+         int[] parallelPixels = pool.submit(new Callable<int[]>()
+         {
+            @Override
+            public int[] call()
+            {
+               return StrictWangTileGenerator.mergeTile(graphs, edgeTile, sampleTile, true);
+            }
+         }).get();
+         assertArrayEquals(sequentialPixels, parallelPixels);
+      }
+      finally
+      {
+         pool.shutdownNow();
+      }
+   }
+
+
+   /**
+    * Tile 0 fails, once the other tiles are running. They only stop, when they are interrupted.
+    */
+   @Test
+   public void failingTileStopsItsSiblingsOnAForkJoinPool() throws Exception
+   {
+      final CountDownLatch siblingsStarted = new CountDownLatch(NUMBER_OF_TILES - 1);
+      final AtomicInteger runningSiblings = new AtomicInteger();
+      final IllegalStateException failure = new IllegalStateException("Tile failed.");
+      StrictWangTileGenerator.TileSource source = new StrictWangTileGenerator.TileSource()
+      {
+         @Override
+         public BufferedImage generateTile(int iteration) throws Exception
+         {
+            if (iteration == 0)
+            {
+               siblingsStarted.await();
+               throw failure;
+            }
+            runningSiblings.incrementAndGet();
+            try
+            {
+               siblingsStarted.countDown();
+               while (!Thread.currentThread().isInterrupted())
+               {
+                  Thread.yield();
+               }
+               return null;
+            }
+            finally
+            {
+               runningSiblings.decrementAndGet();
+            }
+         }
+      };
+
+      ForkJoinPool pool = new ForkJoinPool(NUMBER_OF_TILES);
+      try
+      {
+         StrictWangTileGenerator.generate(NUMBER_OF_TILES, source, new StrictWangTileGenerator.TileListener()
+         {
+            @Override
+            public void tileGenerated(BufferedImage tile, int iteration)
+            {
+               fail("No tile is done.");
+            }
+         }, pool);
+         fail("Generation did not fail.");
+      }
+      catch (ExecutionException e)
+      {
+         assertSame(failure, e.getCause());
+      }
+      finally
+      {
+         // Shared pools stay up, the siblings have stopped without it
+         assertFalse(pool.isShutdown());
+         assertEquals(0, runningSiblings.get());
+         pool.shutdownNow();
+      }
+   }
+
+
+   @Test
+   public void interruptWithdrawsTheTilesNotStarted() throws Exception
+   {
+      final CountDownLatch firstTileStarted = new CountDownLatch(1);
+      final AtomicInteger startedTiles = new AtomicInteger();
+      StrictWangTileGenerator.TileSource source = new StrictWangTileGenerator.TileSource()
+      {
+         @Override
+         public BufferedImage generateTile(int iteration) throws Exception
+         {
+            startedTiles.incrementAndGet();
+            firstTileStarted.countDown();
+            // Returns, when interrupted
+            new CountDownLatch(1).await();
+            return null;
+         }
+      };
+
+      // One thread: only one tile starts before the interrupt
+      ForkJoinPool pool = new ForkJoinPool(1);
+      final Thread caller = Thread.currentThread();
+      Thread interrupter = new Thread(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               firstTileStarted.await();
+            }
+            catch (InterruptedException e)
+            {
+               return;
+            }
+            caller.interrupt();
+         }
+      });
+      interrupter.start();
+      try
+      {
+         StrictWangTileGenerator.generate(NUMBER_OF_TILES, source, null, pool);
+         fail("Generation was not interrupted.");
+      }
+      catch (InterruptedException e)
+      {
+         // The withdrawn tiles do not start later on
+         pool.shutdown();
+         pool.awaitTermination(10, TimeUnit.SECONDS);
+         assertEquals(1, startedTiles.get());
+      }
+      finally
+      {
+         interrupter.join();
+         pool.shutdownNow();
+      }
+   }
+
+
+   @Test
+   public void tilesArriveInTheOrderTheyAreDone() throws Exception
+   {
+      final CountDownLatch secondTileArrived = new CountDownLatch(1);
+      StrictWangTileGenerator.TileSource source = new StrictWangTileGenerator.TileSource()
+      {
+         @Override
+         public BufferedImage generateTile(int iteration) throws Exception
+         {
+            if (iteration == 0)
+            {
+               secondTileArrived.await();
+            }
+            return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+         }
+      };
+
+      final List<Integer> iterations = Collections.synchronizedList(new ArrayList<Integer>());
+      ForkJoinPool pool = new ForkJoinPool(2);
+      try
+      {
+         StrictWangTileGenerator.generate(2, source, new StrictWangTileGenerator.TileListener()
+         {
+            @Override
+            public void tileGenerated(BufferedImage tile, int iteration)
+            {
+               iterations.add(iteration);
+               secondTileArrived.countDown();
+            }
+         }, pool);
+      }
+      finally
+      {
+         pool.shutdownNow();
+      }
+      assertEquals(Arrays.asList(1, 0), iterations);
+   }
+
+
+   @Test
+   public void interruptAbortsTheSeamSearch()
+   {
+      BufferedImage[] images = TextureWriterTest.createTiles(2, TILE_RESOLUTION, 1);
+      for (SeamEngine seamEngine : SeamEngine.values())
+      {
+         List<? extends BaseAreaGraph> graphs = StrictWangTileGenerator.createGraphs(TILE_RESOLUTION, seamEngine);
+         Thread.currentThread().interrupt();
+         try
+         {
+            StrictWangTileGenerator.mergeTile(graphs, images[0], images[1], false);
+            fail(seamEngine + " ignored the interrupt.");
+         }
+         catch (CancellationException e)
+         {
+            // The flag stays set for the caller
+            assertTrue(seamEngine + " cleared the interrupt.", Thread.currentThread().isInterrupted());
+         }
+         finally
+         {
+            Thread.interrupted();
+         }
+      }
+   }
+}
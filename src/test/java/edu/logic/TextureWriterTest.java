@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * @author agent
+ */
+public class TextureWriterTest
+{
+   private final static int TILE_RESOLUTION = 16;
+   private final static int NUMBER_OF_TILES = 4;
+   private final static int COLUMNS = 7;
+   private final static int ROWS = 5;
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+   /**
+    * @return Tiles of noise, so that each pixel of the texture tells its tile and position.
+    */
+   static BufferedImage[] createTiles(int numberOfTiles, int tileResolution, long seed)
+   {
+      Random random = new Random(seed);
+      BufferedImage[] tiles = new BufferedImage[numberOfTiles];
+      for (int i = 0; i < tiles.length; i++)
+      {
+         tiles[i] = new BufferedImage(tileResolution, tileResolution, BufferedImage.TYPE_INT_RGB);
+         for (int y = 0; y < tileResolution; y++)
+         {
+            for (int x = 0; x < tileResolution; x++)
+            {
+               tiles[i].setRGB(x, y, random.nextInt(0x1000000));
+            }
+         }
+      }
+      return tiles;
+   }
+
+
+   @Test
+   public void rawHoldsThePixelsOfTheMappedTiles() throws Exception
+   {
+      BufferedImage[] tiles = createTiles(NUMBER_OF_TILES, TILE_RESOLUTION, 1);
+      short[] map = new TileMapGenerator(NUMBER_OF_TILES).generate(COLUMNS, ROWS, 2);
+      ByteArrayOutputStream raw = new ByteArrayOutputStream();
+      new TextureWriter(tiles).writeRaw(map, COLUMNS, ROWS, raw);
+
+      byte[] rawBytes = raw.toByteArray();
+      int width = COLUMNS * TILE_RESOLUTION;
+      assertEquals(3 * width * ROWS * TILE_RESOLUTION, rawBytes.length);
+      for (int y = 0; y < ROWS * TILE_RESOLUTION; y++)
+      {
+         for (int x = 0; x < width; x++)
+         {
+            BufferedImage tile = tiles[map[y / TILE_RESOLUTION * COLUMNS + x / TILE_RESOLUTION]];
+            assertEquals(tile.getRGB(x % TILE_RESOLUTION, y % TILE_RESOLUTION) & 0xFFFFFF, getRawRgb(rawBytes, y * width + x));
+         }
+      }
+   }
+
+
+   @Test
+   public void pngShowsTheSamePixelsAsRaw() throws Exception
+   {
+      TextureWriter textureWriter = new TextureWriter(createTiles(NUMBER_OF_TILES, TILE_RESOLUTION, 3));
+      short[] map = new TileMapGenerator(NUMBER_OF_TILES).generate(COLUMNS, ROWS, 4);
+      ByteArrayOutputStream raw = new ByteArrayOutputStream();
+      textureWriter.writeRaw(map, COLUMNS, ROWS, raw);
+      ByteArrayOutputStream png = new ByteArrayOutputStream();
+      textureWriter.writePng(map, COLUMNS, ROWS, png);
+
+      byte[] rawBytes = raw.toByteArray();
+      BufferedImage texture = ImageIO.read(new ByteArrayInputStream(png.toByteArray()));
+      assertEquals(textureWriter.getWidth(COLUMNS), texture.getWidth());
+      assertEquals(textureWriter.getHeight(ROWS), texture.getHeight());
+      for (int y = 0; y < texture.getHeight(); y++)
+      {
+         for (int x = 0; x < texture.getWidth(); x++)
+         {
+            assertEquals(getRawRgb(rawBytes, y * texture.getWidth() + x), texture.getRGB(x, y) & 0xFFFFFF);
+         }
+      }
+   }
+
+
+   @Test
+   public void composedFileEqualsRawStream() throws Exception
+   {
+      TextureWriter textureWriter = new TextureWriter(createTiles(NUMBER_OF_TILES, TILE_RESOLUTION, 5));
+      short[] map = new TileMapGenerator(NUMBER_OF_TILES).generate(COLUMNS, ROWS, 6);
+      ByteArrayOutputStream raw = new ByteArrayOutputStream();
+      textureWriter.writeRaw(map, COLUMNS, ROWS, raw);
+
+      File file = temporaryFolder.newFile("texture.raw");
+      // More threads than bands
+      textureWriter.setParallelism(ROWS + 2);
+      textureWriter.writeRaw(map, COLUMNS, ROWS, file);
+      assertArrayEquals(raw.toByteArray(), Files.readAllBytes(file.toPath()));
+   }
+
+
+   private static int getRawRgb(byte[] rawBytes, int pixel)
+   {
+      return (rawBytes[3 * pixel] & 0xFF) << 16 | (rawBytes[3 * pixel + 1] & 0xFF) << 8 | rawBytes[3 * pixel + 2] & 0xFF;
+   }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * @author agent
+ */
+public class TileMapGeneratorTest
+{
+   // More than one block in each direction, the last ones partly filled
+   private final static int COLUMNS = 600;
+   private final static int ROWS = 530;
+
+
+   @Test
+   public void neighborsMatchEdgeColors()
+   {
+      for (int numberOfTiles : new int[] { 4, 8, 16 })
+      {
+         short[] map = new TileMapGenerator(numberOfTiles).generate(COLUMNS, ROWS, 17);
+         assertEdgeColorsMatch(StrictWangTileGenerator.getEdgeTileIndices(numberOfTiles), map, COLUMNS, ROWS);
+      }
+   }
+
+
+   @Test
+   public void sameSeedGivesSameMapRegardlessOfParallelism()
+   {
+      TileMapGenerator generator = new TileMapGenerator(8);
+      generator.setParallelism(1);
+      short[] sequentialMap = generator.generate(COLUMNS, ROWS, 5);
+      generator.setParallelism(4);
+      assertArrayEquals(sequentialMap, generator.generate(COLUMNS, ROWS, 5));
+   }
+
+
+   /**
+    * Fails, if a tile does not have the colors of its top and left neighbor.
+    */
+   static void assertEdgeColorsMatch(int[][] edgeImageIndices, short[] map, int columns, int rows)
+   {
+      for (int y = 0; y < rows; y++)
+      {
+         for (int x = 0; x < columns; x++)
+         {
+            int tile = map[y * columns + x];
+            if (y > 0)
+            {
+               int upperTile = map[(y - 1) * columns + x];
+               assertEquals("Top edge of " + x + ", " + y, edgeImageIndices[upperTile][ImageUtil.BOTTOM_AREA_INDEX],
+                  edgeImageIndices[tile][ImageUtil.TOP_AREA_INDEX]);
+            }
+            if (x > 0)
+            {
+               int leftTile = map[y * columns + x - 1];
+               assertEquals("Left edge of " + x + ", " + y, edgeImageIndices[leftTile][ImageUtil.RIGHT_AREA_INDEX],
+                  edgeImageIndices[tile][ImageUtil.LEFT_AREA_INDEX]);
+            }
+         }
+      }
+   }
+}
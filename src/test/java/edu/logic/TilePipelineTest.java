@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.logic.graphs.SeamEngine;
+
+
+/**
+ * @author agent
+ */
+public class TilePipelineTest
+{
+   private final static int NUMBER_OF_TILES = 8;
+   private final static int TILE_RESOLUTION = 16;
+
+   @Rule
+   public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+   @Test(timeout = 60000)
+   public void everyStageHandsOnAllTiles() throws Exception
+   {
+      TilePipeline pipeline = createPipeline();
+      // More threads than queue slots, so the stages block on each other
+      pipeline.setQueueCapacity(1);
+      for (TilePipeline.Stage stage : TilePipeline.Stage.values())
+      {
+         pipeline.setParallelism(stage, 2);
+      }
+      File folder = temporaryFolder.newFolder();
+      pipeline.run(folder);
+
+      assertEquals(NUMBER_OF_TILES, folder.list().length);
+      for (int i = 0; i < NUMBER_OF_TILES; i++)
+      {
+         BufferedImage tile = ImageIO.read(new File(folder, "tile" + i + ".png"));
+         assertEquals(TILE_RESOLUTION, tile.getWidth());
+         assertEquals(TILE_RESOLUTION, tile.getHeight());
+      }
+   }
+
+
+   /**
+    * The last stage fails on the first tile, the stages in front of it must drain the remaining tiles instead of
+    * blocking on their full queues.
+    */
+   @Test(timeout = 60000)
+   public void failingStageDrainsTheRemainingTiles() throws Exception
+   {
+      TilePipeline pipeline = createPipeline();
+      pipeline.setQueueCapacity(1);
+      File missingFolder = new File(temporaryFolder.getRoot(), "missing");
+      try
+      {
+         pipeline.run(missingFolder);
+         fail("Writing into a missing folder must fail.");
+      }
+      catch (IOException e)
+      {
+         // Expected
+      }
+      assertFalse(missingFolder.exists());
+
+      // The pipeline may run again
+      File folder = temporaryFolder.newFolder();
+      pipeline.run(folder);
+      assertEquals(NUMBER_OF_TILES, folder.list().length);
+   }
+
+
+   @Test
+   public void rejectsEmptyStages()
+   {
+      TilePipeline pipeline = createPipeline();
+      try
+      {
+         pipeline.setParallelism(TilePipeline.Stage.SOLVE, 0);
+         fail("A stage needs a thread.");
+      }
+      catch (IllegalArgumentException e)
+      {
+         // Expected
+      }
+      try
+      {
+         pipeline.setQueueCapacity(0);
+         fail("A queue needs a slot.");
+      }
+      catch (IllegalArgumentException e)
+      {
+         // Expected
+      }
+   }
+
+
+   private static TilePipeline createPipeline()
+   {
+      BufferedImage inputImage = TextureWriterTest.createTiles(1, 4 * TILE_RESOLUTION, 1)[0];
+      return new TilePipeline(inputImage, NUMBER_OF_TILES, TILE_RESOLUTION, SeamEngine.GRID);
+   }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * @author agent
+ */
+public class TileServerTest
+{
+   private final static int TILE_RESOLUTION = 16;
+
+   private TileServer tileServer;
+   private byte[] encodedImage;
+
+
+   @Before
+   public void startServer() throws IOException
+   {
+      tileServer = new TileServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, new AdmissionScheduler(Long.MAX_VALUE));
+      tileServer.start();
+
+      ByteArrayOutputStream image = new ByteArrayOutputStream();
+      ImageIO.write(TextureWriterTest.createTiles(1, 4 * TILE_RESOLUTION, 1)[0], "png", image);
+      encodedImage = image.toByteArray();
+   }
+
+
+   @After
+   public void stopServer()
+   {
+      tileServer.stop();
+   }
+
+
+   @Test
+   public void streamsTheTextureOfTheRequestedSize() throws IOException
+   {
+      HttpURLConnection connection = post("output=texture&numberOfTiles=4&tileResolution=" + TILE_RESOLUTION + "&columns=5&rows=3");
+      assertEquals(200, connection.getResponseCode());
+      BufferedImage texture;
+      try (InputStream inputStream = connection.getInputStream())
+      {
+         texture = ImageIO.read(inputStream);
+      }
+      assertEquals(5 * TILE_RESOLUTION, texture.getWidth());
+      assertEquals(3 * TILE_RESOLUTION, texture.getHeight());
+   }
+
+
+   @Test
+   public void rejectsTexturesLargerThanTheLimit() throws IOException
+   {
+      // Fits into an int, but not into the limit
+      HttpURLConnection connection = post("output=texture&numberOfTiles=4&tileResolution=" + TILE_RESOLUTION + "&columns=40000&rows=40000");
+      assertEquals(400, connection.getResponseCode());
+   }
+
+
+   private HttpURLConnection post(String query) throws IOException
+   {
+      HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + tileServer.getPort() + "/tiles?" + query).openConnection();
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      try (OutputStream outputStream = connection.getOutputStream())
+      {
+         outputStream.write(encodedImage);
+      }
+      return connection;
+   }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+
+/**
+ * @author agent
+ */
+public class WangTextureTest
+{
+   private final static int TILE_RESOLUTION = 16;
+   private final static int COLUMNS = 9;
+   private final static int ROWS = 6;
+
+
+   /**
+    * Packs the tiles like the user interface: 2 x 2 tiles for 4 tiles, 4 x 2 for 8 and 4 x 4 for 16.
+    */
+   private static BufferedImage packTiles(BufferedImage[] tiles)
+   {
+      int atlasColumns = tiles.length == 4 ? 2 : 4;
+      BufferedImage atlas = new BufferedImage(TILE_RESOLUTION * atlasColumns, TILE_RESOLUTION * (tiles.length / atlasColumns),
+         BufferedImage.TYPE_INT_RGB);
+      Graphics graphics = atlas.createGraphics();
+      for (int i = 0; i < tiles.length; i++)
+      {
+         graphics.drawImage(tiles[i], TILE_RESOLUTION * (i % atlasColumns), TILE_RESOLUTION * (i / atlasColumns), null);
+      }
+      graphics.dispose();
+      return atlas;
+   }
+
+
+   @Test
+   public void samplesThePixelsOfTheMappedTiles()
+   {
+      BufferedImage[] tiles = TextureWriterTest.createTiles(8, TILE_RESOLUTION, 1);
+      short[] map = new TileMapGenerator(8).generate(COLUMNS, ROWS, 2);
+      WangTexture texture = new WangTexture(packTiles(tiles), 8, map, COLUMNS, ROWS);
+
+      assertEquals(TILE_RESOLUTION, texture.getTileResolution());
+      for (int y = 0; y < ROWS * TILE_RESOLUTION; y++)
+      {
+         for (int x = 0; x < COLUMNS * TILE_RESOLUTION; x++)
+         {
+            BufferedImage tile = tiles[map[y / TILE_RESOLUTION * COLUMNS + x / TILE_RESOLUTION]];
+            assertEquals(tile.getRGB(x % TILE_RESOLUTION, y % TILE_RESOLUTION) & 0xFFFFFF, texture.sample(x, y) & 0xFFFFFF);
+         }
+      }
+   }
+
+
+   @Test
+   public void regionsEqualSamples()
+   {
+      short[] map = new TileMapGenerator(4).generate(COLUMNS, ROWS, 3);
+      WangTexture texture = new WangTexture(packTiles(TextureWriterTest.createTiles(4, TILE_RESOLUTION, 4)), 4, map, COLUMNS, ROWS);
+      // Starts within a tile and crosses several tile borders
+      assertRegionEqualsSamples(texture, 5, 11, 3 * TILE_RESOLUTION + 7, 2 * TILE_RESOLUTION + 3);
+      assertRegionEqualsSamples(texture, 0, 0, COLUMNS * TILE_RESOLUTION, ROWS * TILE_RESOLUTION);
+   }
+
+
+   @Test
+   public void endlessTextureSamplesTheHashedMap()
+   {
+      BufferedImage[] tiles = TextureWriterTest.createTiles(16, TILE_RESOLUTION, 5);
+      HashedTileMap map = new HashedTileMap(16, 6);
+      WangTexture texture = new WangTexture(packTiles(tiles), 16, map);
+
+      long startX = -3L * TILE_RESOLUTION - 5;
+      long startY = 1L << 32;
+      for (long y = startY; y < startY + 2 * TILE_RESOLUTION; y++)
+      {
+         for (long x = startX; x < startX + 5 * TILE_RESOLUTION; x++)
+         {
+            int tile = map.getTile((int) Math.floor((double) x / TILE_RESOLUTION), (int) (y / TILE_RESOLUTION));
+            int rgb = tiles[tile].getRGB((int) (x - Math.floor((double) x / TILE_RESOLUTION) * TILE_RESOLUTION), (int) (y % TILE_RESOLUTION));
+            assertEquals(rgb & 0xFFFFFF, texture.sample(x, y) & 0xFFFFFF);
+         }
+      }
+      assertRegionEqualsSamples(texture, startX, startY, 5 * TILE_RESOLUTION, 2 * TILE_RESOLUTION);
+   }
+
+
+   @Test(expected = IllegalArgumentException.class)
+   public void regionOutsideOfTheTextureIsRejected()
+   {
+      short[] map = new TileMapGenerator(4).generate(COLUMNS, ROWS, 7);
+      WangTexture texture = new WangTexture(packTiles(TextureWriterTest.createTiles(4, TILE_RESOLUTION, 8)), 4, map, COLUMNS, ROWS);
+      texture.readRegion(COLUMNS * TILE_RESOLUTION - 4, 0, 5, 1, new int[5]);
+   }
+
+
+   private static void assertRegionEqualsSamples(WangTexture texture, long x, long y, int width, int height)
+   {
+      int[] region = new int[width * height];
+      texture.readRegion(x, y, width, height, region);
+      for (int j = 0; j < height; j++)
+      {
+         for (int i = 0; i < width; i++)
+         {
+            assertEquals(texture.sample(x + i, y + j), region[j * width + i]);
+         }
+      }
+   }
+}
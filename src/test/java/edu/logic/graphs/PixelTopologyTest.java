@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * @author agent
+ */
+public class PixelTopologyTest
+{
+   private final static int[] RESOLUTIONS = { 2, 4, 16, 64 };
+
+
+   @Test
+   public void areaSpansMatchTheAreasOfTheImage()
+   {
+      for (int resolution : RESOLUTIONS)
+      {
+         PixelTopology topology = PixelTopology.forResolution(resolution);
+         for (int node = 0; node < topology.getNodeCount(); node++)
+         {
+            int x = topology.getX(node);
+            int y = topology.getY(node);
+            int areaIndex = ImageUtil.getAreaIndex(x, y, resolution);
+            assertEquals("Node " + x + "," + y + " of " + resolution, areaIndex, topology.getAreaIndex(node));
+         }
+      }
+   }
+
+
+   @Test
+   public void mergeSpansCoverEachPixelOnce()
+   {
+      for (int resolution : RESOLUTIONS)
+      {
+         PixelTopology topology = PixelTopology.forResolution(resolution);
+         int[] merges = new int[topology.getNodeCount()];
+         for (int areaIndex = ImageUtil.TOP_AREA_INDEX; areaIndex <= ImageUtil.LEFT_AREA_INDEX; areaIndex++)
+         {
+            for (int y = 0; y < resolution; y++)
+            {
+               for (int x = topology.getMergeStart(areaIndex, y); x < topology.getMergeEnd(areaIndex, y); x++)
+               {
+                  merges[topology.getNode(x, y)]++;
+               }
+            }
+         }
+         for (int node = 0; node < merges.length; node++)
+         {
+            assertEquals("Node " + node + " of " + resolution, 1, merges[node]);
+         }
+      }
+   }
+
+
+   /**
+    * Each view is a rotation or reflection of the tile, which maps the top area onto its area, and the graph of the top
+    * area onto the graph of its area, including the pixels next to the diagonals.
+    */
+   @Test
+   public void viewsMapTheTopAreaOntoEachArea()
+   {
+      for (int resolution : RESOLUTIONS)
+      {
+         PixelTopology topology = PixelTopology.forResolution(resolution);
+         for (int areaIndex = ImageUtil.TOP_AREA_INDEX; areaIndex <= ImageUtil.LEFT_AREA_INDEX; areaIndex++)
+         {
+            int[] viewNodes = topology.getViewNodes(areaIndex);
+
+            BitSet shownNodes = new BitSet();
+            for (int node : viewNodes)
+            {
+               shownNodes.set(node);
+            }
+            assertEquals(topology.getNodeCount(), shownNodes.cardinality());
+
+            BitSet viewGraph = new BitSet();
+            BitSet graph = new BitSet();
+            for (int y = 0; y < resolution; y++)
+            {
+               for (int x = topology.getAreaStart(ImageUtil.TOP_AREA_INDEX, y); x < topology.getAreaEnd(ImageUtil.TOP_AREA_INDEX, y); x++)
+               {
+                  // Pixels on the diagonals of the image belong to either of their areas
+                  int viewNode = viewNodes[topology.getNode(x, y)];
+                  int viewX = topology.getX(viewNode);
+                  int viewY = topology.getY(viewNode);
+                  if (viewX != viewY && viewX != resolution - 1 - viewY)
+                  {
+                     assertEquals(areaIndex, topology.getAreaIndex(viewNode));
+                  }
+               }
+               for (int x = topology.getGraphStart(ImageUtil.TOP_AREA_INDEX, y); x < topology.getGraphEnd(ImageUtil.TOP_AREA_INDEX, y); x++)
+               {
+                  viewGraph.set(viewNodes[topology.getNode(x, y)]);
+               }
+               for (int x = topology.getGraphStart(areaIndex, y); x < topology.getGraphEnd(areaIndex, y); x++)
+               {
+                  graph.set(topology.getNode(x, y));
+               }
+            }
+            assertEquals("Graph of area " + areaIndex + " of " + resolution, graph, viewGraph);
+         }
+      }
+   }
+
+
+   @Test
+   public void transposeSwapsXAndY()
+   {
+      PixelTopology topology = PixelTopology.forResolution(16);
+      int[] leftView = topology.getViewNodes(ImageUtil.LEFT_AREA_INDEX);
+      for (int node = 0; node < topology.getNodeCount(); node++)
+      {
+         int transposed = topology.transpose(node);
+         assertEquals(topology.getX(node), topology.getY(transposed));
+         assertEquals(topology.getY(node), topology.getX(transposed));
+         assertEquals(node, topology.transpose(transposed));
+         assertEquals(leftView[node], transposed);
+      }
+   }
+
+
+   @Test
+   public void topologiesAreSharedPerResolution()
+   {
+      assertSame(PixelTopology.forResolution(32), PixelTopology.forResolution(32));
+   }
+
+
+   @Test
+   public void rejectsResolutionsNotAPowerOfTwo()
+   {
+      for (int resolution : new int[] { -4, 0, 1, 3, 24, 100 })
+      {
+         try
+         {
+            PixelTopology.forResolution(resolution);
+            fail("Resolution " + resolution + " accepted.");
+         }
+         catch (IllegalArgumentException e)
+         {
+            // Expected
+         }
+      }
+   }
+}
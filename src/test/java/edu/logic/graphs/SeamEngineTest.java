@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * agent - initial API and implementation
+ *******************************************************************************/
+package edu.logic.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.logic.util.ImageUtil;
+
+
+/**
+ * Compares the seam engines with the {@link SeamEngine#JGRAPHT} reference.
+ *
+ * @author agent
+ */
+public class SeamEngineTest
+{
+   private final static int RESOLUTION = 32;
+   // Large enough for MULTIRESOLUTION to search a corridor around the seam of half the resolution
+   private final static int CORRIDOR_RESOLUTION = 128;
+   private final static int RUNS = 5;
+
+
+   @Test
+   public void dijkstraEnginesFindPathsOfTheReferenceCost()
+   {
+      PixelTopology topology = PixelTopology.forResolution(RESOLUTION);
+      Random random = new Random(1);
+      for (int run = 0; run < RUNS; run++)
+      {
+         // Multiples of 1/4 are not rounded by the bucket queue
+         double[] rightWeights = new double[topology.getNodeCount()];
+         double[] bottomWeights = new double[topology.getNodeCount()];
+         for (int node = 0; node < rightWeights.length; node++)
+         {
+            rightWeights[node] = (random.nextInt(400) + 1) / 4.0;
+            bottomWeights[node] = (random.nextInt(400) + 1) / 4.0;
+         }
+
+         double reference = findPathCost(SeamEngine.JGRAPHT, topology, rightWeights, bottomWeights);
+         assertEquals(reference, findPathCost(SeamEngine.GRID, topology, rightWeights, bottomWeights), 0);
+         assertEquals(reference, findPathCost(SeamEngine.GRID_BUCKET, topology, rightWeights, bottomWeights), 0);
+         // Only searches seams, that never turn back
+         assertTrue(findPathCost(SeamEngine.MONOTONE, topology, rightWeights, bottomWeights) >= reference);
+      }
+   }
+
+
+   @Test
+   public void gridEngineFindsTheSeamsOfTheReferenceInAllAreas()
+   {
+      PixelTopology topology = PixelTopology.forResolution(RESOLUTION);
+      Random random = new Random(2);
+      for (int run = 0; run < RUNS; run++)
+      {
+         // Noise has no two paths of the same cost
+         CostField costField = new CostField(topology, createNoise(random), createNoise(random));
+         BaseAreaGraph[] graphs = new BaseAreaGraph[] { new TopAreaGraph(topology, SeamEngine.GRID), new RightAreaGraph(topology, SeamEngine.GRID),
+            new BottomAreaGraph(topology, SeamEngine.GRID), new LeftAreaGraph(topology, SeamEngine.GRID) };
+         BaseAreaGraph[] referenceGraphs = new BaseAreaGraph[] { new TopAreaGraph(topology, SeamEngine.JGRAPHT),
+            new RightAreaGraph(topology, SeamEngine.JGRAPHT), new BottomAreaGraph(topology, SeamEngine.JGRAPHT),
+            new LeftAreaGraph(topology, SeamEngine.JGRAPHT) };
+         for (int i = 0; i < graphs.length; i++)
+         {
+            Seam seam = graphs[i].solve(costField);
+            Seam reference = referenceGraphs[i].solve(costField);
+            assertEquals(reference.getPathNodes(), seam.getPathNodes());
+            assertEquals(reference.getEdgeNodes(), seam.getEdgeNodes());
+         }
+      }
+   }
+
+
+   @Test
+   public void multiresolutionFindsTheSeamOfTheReferenceWithinItsCorridor()
+   {
+      PixelTopology topology = PixelTopology.forResolution(CORRIDOR_RESOLUTION);
+      Random random = new Random(3);
+      for (int run = 0; run < RUNS; run++)
+      {
+         // The seam follows a valley of low costs, that the coarse levels see as well
+         CostField costField = createValley(topology, random);
+         Seam reference = new TopAreaGraph(topology, SeamEngine.JGRAPHT).solve(costField);
+         Seam seam = new TopAreaGraph(topology, SeamEngine.MULTIRESOLUTION).solve(costField);
+         assertEquals(reference.getPathNodes(), seam.getPathNodes());
+         assertEquals(reference.getEdgeNodes(), seam.getEdgeNodes());
+      }
+   }
+
+
+   @Test
+   public void minCutCostsAtMostTheCutOfTheReferenceSeam()
+   {
+      PixelTopology topology = PixelTopology.forResolution(RESOLUTION);
+      Random random = new Random(4);
+      for (int run = 0; run < RUNS; run++)
+      {
+         CostField costField = new CostField(topology, createNoise(random), createNoise(random));
+         Seam reference = new TopAreaGraph(topology, SeamEngine.JGRAPHT).solve(costField);
+         Seam seam = new TopAreaGraph(topology, SeamEngine.MIN_CUT).solve(costField);
+
+         // Entry and exit lie on the edge tile side of the cut
+         BitSet edgeNodes = seam.getEdgeNodes();
+         assertTrue(edgeNodes.get(topology.getNode(0, 0)) && edgeNodes.get(topology.getNode(RESOLUTION - 1, 0)));
+         assertTrue(!seam.getPathNodes().isEmpty());
+         for (int node = edgeNodes.nextSetBit(0); node >= 0; node = edgeNodes.nextSetBit(node + 1))
+         {
+            assertTrue(topology.getY(node) < RESOLUTION / 2);
+         }
+
+         // Float capacities
+         double cutCost = findCutCost(topology, costField, edgeNodes);
+         assertTrue(cutCost + " > " + findCutCost(topology, costField, reference.getEdgeNodes()),
+            cutCost <= findCutCost(topology, costField, reference.getEdgeNodes()) * (1 + 1e-5));
+      }
+   }
+
+
+   @Test
+   public void noPathBetweenUnconnectedNodes()
+   {
+      PixelTopology topology = PixelTopology.forResolution(RESOLUTION);
+      for (SeamEngine seamEngine : new SeamEngine[] { SeamEngine.GRID, SeamEngine.GRID_BUCKET, SeamEngine.MONOTONE, SeamEngine.JGRAPHT })
+      {
+         SeamGraph graph = seamEngine.createGraph(topology, null);
+         graph.addEdge(topology.getNode(0, 0), topology.getNode(1, 0), 1);
+         graph.addEdge(topology.getNode(3, 0), topology.getNode(4, 0), 1);
+         assertEquals(0, graph.findLowestCostPath(topology.getNode(0, 0), topology.getNode(4, 0)).length);
+         assertEquals(0, graph.findLowestCostPath(topology.getNode(0, 0), topology.getNode(9, 9)).length);
+      }
+   }
+
+
+   /**
+    * @return The cost of the lowest cost path the engine finds between the upper corners of a grid
+    *         with the given edge weights.
+    */
+   private static double findPathCost(SeamEngine seamEngine, PixelTopology topology, double[] rightWeights, double[] bottomWeights)
+   {
+      SeamGraph graph = seamEngine.createGraph(topology, null);
+      for (int node = 0; node < topology.getNodeCount(); node++)
+      {
+         if (topology.getRightNeighbor(node) != PixelTopology.NO_NODE)
+         {
+            graph.addEdge(node, topology.getRightNeighbor(node), rightWeights[node]);
+         }
+         if (topology.getBottomNeighbor(node) != PixelTopology.NO_NODE)
+         {
+            graph.addEdge(node, topology.getBottomNeighbor(node), bottomWeights[node]);
+         }
+      }
+      int source = topology.getNode(0, 0);
+      int target = topology.getNode(RESOLUTION - 1, 0);
+      int[] pathNodes = graph.findLowestCostPath(source, target);
+
+      BitSet path = new BitSet(topology.getNodeCount());
+      for (int node : pathNodes)
+      {
+         path.set(node);
+      }
+      assertTrue(path.get(source) && path.get(target));
+      return findCostWithin(path, source, target, topology, rightWeights, bottomWeights);
+   }
+
+
+   /**
+    * The path nodes come in no particular order: Dijkstra restricted to them gives the cost of the path.
+    */
+   private static double findCostWithin(BitSet path, int source, int target, PixelTopology topology, double[] rightWeights, double[] bottomWeights)
+   {
+      double[] distances = new double[topology.getNodeCount()];
+      Arrays.fill(distances, Double.POSITIVE_INFINITY);
+      distances[source] = 0;
+      BitSet done = new BitSet(topology.getNodeCount());
+      while (true)
+      {
+         int next = PixelTopology.NO_NODE;
+         for (int node = path.nextSetBit(0); node >= 0; node = path.nextSetBit(node + 1))
+         {
+            if (!done.get(node) && (next == PixelTopology.NO_NODE || distances[node] < distances[next]))
+            {
+               next = node;
+            }
+         }
+         assertTrue("Path is not connected.", next != PixelTopology.NO_NODE && distances[next] < Double.POSITIVE_INFINITY);
+         if (next == target)
+         {
+            return distances[target];
+         }
+         done.set(next);
+
+         int[] neighbors = new int[] { topology.getRightNeighbor(next), topology.getBottomNeighbor(next), topology.getLeftNeighbor(next),
+            topology.getTopNeighbor(next) };
+         double[] weights = new double[] { rightWeights[next], bottomWeights[next], rightWeights[Math.max(0, next - 1)],
+            bottomWeights[Math.max(0, next - RESOLUTION)] };
+         for (int i = 0; i < neighbors.length; i++)
+         {
+            if (neighbors[i] != PixelTopology.NO_NODE && path.get(neighbors[i]))
+            {
+               distances[neighbors[i]] = Math.min(distances[neighbors[i]], distances[next] + weights[i]);
+            }
+         }
+      }
+   }
+
+
+   /**
+    * @return The summed differences of the edges of the top area graph, that cross the border of edgeNodes.
+    */
+   private static double findCutCost(PixelTopology topology, CostField costField, BitSet edgeNodes)
+   {
+      int halfResolution = topology.getResolution() / 2;
+      double cutCost = 0;
+      for (int y = 0; y < halfResolution; y++)
+      {
+         for (int x = topology.getGraphStart(ImageUtil.TOP_AREA_INDEX, y); x < topology.getGraphEnd(ImageUtil.TOP_AREA_INDEX, y); x++)
+         {
+            // The edges, that BaseAreaGraph creates
+            int node = topology.getNode(x, y);
+            int horizontalNeighbor = x < halfResolution ? topology.getRightNeighbor(node) : x != halfResolution ? topology.getLeftNeighbor(node)
+               : PixelTopology.NO_NODE;
+            for (int neighbor : new int[] { horizontalNeighbor, topology.getTopNeighbor(node) })
+            {
+               if (neighbor != PixelTopology.NO_NODE && edgeNodes.get(node) != edgeNodes.get(neighbor))
+               {
+                  cutCost += costField.getDifference(node, neighbor);
+               }
+            }
+         }
+      }
+      return cutCost;
+   }
+
+
+   /**
+    * Edge and sample tile differ the less, the closer a pixel is to a sine shaped curve from the upper left to the upper
+    * right corner. Only one path runs on the curve, the noise does not change the seam.
+    */
+   private static CostField createValley(PixelTopology topology, Random random)
+   {
+      int resolution = topology.getResolution();
+      int[] distances = new int[topology.getNodeCount()];
+      double amplitude = resolution / (4 + random.nextDouble() * 4);
+      int previousCurveY = 0;
+      for (int x = 0; x < resolution; x++)
+      {
+         // Each column holds the steps to its curve point, so that a single path of nodes on the curve connects the corners
+         int curveY = (int) Math.round(amplitude * Math.sin(Math.PI * x / (resolution - 1)));
+         int curveStart = Math.min(previousCurveY, curveY);
+         int curveEnd = Math.max(previousCurveY, curveY);
+         for (int y = 0; y < resolution; y++)
+         {
+            distances[topology.getNode(x, y)] = Math.max(0, Math.max(curveStart - y, y - curveEnd));
+         }
+         previousCurveY = curveY;
+      }
+
+      BufferedImage edgeTile = new BufferedImage(resolution, resolution, BufferedImage.TYPE_INT_RGB);
+      BufferedImage sampleTile = new BufferedImage(resolution, resolution, BufferedImage.TYPE_INT_RGB);
+      for (int node = 0; node < distances.length; node++)
+      {
+         int gray = 60 + Math.min(180, 12 * distances[node]);
+         int rgb = (gray + random.nextInt(4)) << 16 | (gray + random.nextInt(4)) << 8 | gray + random.nextInt(4);
+         edgeTile.setRGB(topology.getX(node), topology.getY(node), rgb);
+         sampleTile.setRGB(topology.getX(node), topology.getY(node), 0x3C3C3C);
+      }
+      return new CostField(topology, edgeTile, sampleTile);
+   }
+
+
+   private static BufferedImage createNoise(Random random)
+   {
+      BufferedImage image = new BufferedImage(RESOLUTION, RESOLUTION, BufferedImage.TYPE_INT_RGB);
+      for (int y = 0; y < RESOLUTION; y++)
+      {
+         for (int x = 0; x < RESOLUTION; x++)
+         {
+            image.setRGB(x, y, random.nextInt(0x1000000));
+         }
+      }
+      return image;
+   }
+}